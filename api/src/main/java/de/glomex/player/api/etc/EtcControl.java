@@ -3,8 +3,11 @@ package de.glomex.player.api.etc;
 import de.glomex.player.api.ControlTag;
 import de.glomex.player.api.lifecycle.AdResolver;
 import de.glomex.player.api.lifecycle.ContentResolver;
+import de.glomex.player.api.media.MediaID;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Created by <b>me@olexxa.com</b>
  */
@@ -15,6 +18,23 @@ public interface EtcControl extends ControlTag {
 
     void adResolver(@NotNull AdResolver adResolver);
 
+    /**
+     * Resolved content is cached for ttl, stream one for streamTtl; errors for errorTtl, all in milliseconds.
+     * Size is number of media to keep, 0 disables the cache.
+     */
+    void contentCache(int size, long ttl, long streamTtl, long errorTtl);
+
+    /**
+     * Ad decisions are cached for ttl, errors for errorTtl, in milliseconds.
+     * Size is number of media to keep, 0 disables the cache.
+     */
+    void adCache(int size, long ttl, long errorTtl);
+
+    // media will be resolved again, e.g. when it's known to be changed
+    void invalidate(@NotNull MediaID mediaID);
+
+    void invalidateAll();
+
     <UI_IN> void embedInto(@NotNull UI_IN container);
 
     void requestFullScreen();
@@ -24,6 +44,10 @@ public interface EtcControl extends ControlTag {
     // automatically exit when playlist is empty
     void setAutoShutdown(boolean state);
 
+    // doesn't block, see shutdownAsync
     void shutdown();
 
+    // completes when the player has released everything
+    @NotNull CompletableFuture<Void> shutdownAsync();
+
 }
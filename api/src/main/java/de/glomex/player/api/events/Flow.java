@@ -0,0 +1,46 @@
+package de.glomex.player.api.events;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reactive streams interfaces, the same as java.util.concurrent.Flow (which requires Java 9),
+ * so subscribers are trivially adapted once api moves to newer Java.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public final class Flow {
+
+    private Flow() {}
+
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        void subscribe(@NotNull Subscriber<? super T> subscriber);
+
+    }
+
+    public interface Subscriber<T> {
+
+        void onSubscribe(@NotNull Subscription subscription);
+
+        void onNext(@NotNull T item);
+
+        void onError(@NotNull Throwable error);
+
+        void onComplete();
+
+    }
+
+    public interface Subscription {
+
+        /**
+         * Adds n items to demand; nothing is delivered until requested.
+         */
+        void request(long n);
+
+        void cancel();
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package de.glomex.player.api.events;
+
+/**
+ * What to do with event, when subscriber's buffer is full (subscriber doesn't request fast enough).
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public enum Overflow {
+
+    /** evict the oldest buffered event */
+    drop_oldest,
+
+    /** discard the new event */
+    drop_latest,
+
+    /** cancel subscription and signal onError */
+    fail
+
+}
@@ -0,0 +1,36 @@
+package de.glomex.player.api.events;
+
+import de.glomex.player.api.ListenerTag;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Event as delivered by {@link SubscribeControl#events}: the listener call which would be made.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public interface PlayerEvent {
+
+    /**
+     * Listener interface the event belongs to
+     */
+    @NotNull Class<? extends ListenerTag> type();
+
+    /**
+     * Name of the listener method, e.g. onSeek
+     */
+    @NotNull String name();
+
+    /**
+     * Milliseconds since epoch
+     */
+    long timestamp();
+
+    /**
+     * Arguments of the listener method, primitives are boxed
+     */
+    @NotNull List<Object> arguments();
+
+}
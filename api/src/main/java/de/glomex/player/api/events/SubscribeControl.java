@@ -8,13 +8,41 @@ import org.jetbrains.annotations.NotNull;
  * Listener can implement several listener interfaces at once.
  * Supports several listeners of the same type:
  *
+ * Events can be pulled as well: publishers deliver events only as subscriber requests them,
+ * up to capacity events are buffered per subscriber, the rest are handled according to {@link Overflow}.
+ *
  * Created by <b>me@olexxa.com</b>
  */
 @SuppressWarnings("UnusedDeclaration")
 public interface SubscribeControl extends ControlTag {
 
+    int DEFAULT_CAPACITY = 256;
+
     void registerListener(@NotNull ListenerTag listener);
 
+    /**
+     * Listener is called only for callbacks (listener method names) given, the rest are skipped on dispatch.
+     */
+    void registerListener(@NotNull ListenerTag listener, @NotNull String... callbacks);
+
     void unregisterListener(@NotNull ListenerTag listener);
 
+    /**
+     * Events of the listener type given
+     */
+    @NotNull Flow.Publisher<PlayerEvent> events(@NotNull Class<? extends ListenerTag> type, int capacity, @NotNull Overflow overflow);
+
+    /**
+     * Events of all public listener types, in order raised
+     */
+    @NotNull Flow.Publisher<PlayerEvent> events(int capacity, @NotNull Overflow overflow);
+
+    default @NotNull Flow.Publisher<PlayerEvent> events(@NotNull Class<? extends ListenerTag> type) {
+        return events(type, DEFAULT_CAPACITY, Overflow.drop_oldest);
+    }
+
+    default @NotNull Flow.Publisher<PlayerEvent> events() {
+        return events(DEFAULT_CAPACITY, Overflow.drop_oldest);
+    }
+
 }
@@ -0,0 +1,36 @@
+package de.glomex.player.api.lifecycle;
+
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non blocking ad resolver: player doesn't hold a thread while ads are resolved.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public interface AsyncAdResolver extends AdResolver {
+
+    /**
+     * Must not block. Returned stage completes either with ad list or exceptionally.
+     * Stage is cancelled, if possible, when ads aren't needed anymore or resolving takes too long.
+     */
+    @NotNull CompletionStage<List<Advertise>> resolveAsync(@NotNull MediaID mediaID);
+
+    @Override
+    default @NotNull List<Advertise> resolve(@NotNull MediaID mediaID) {
+        try {
+            return resolveAsync(mediaID).toCompletableFuture().join();
+        } catch (CompletionException error) {
+            if (error.getCause() instanceof RuntimeException)
+                throw (RuntimeException) error.getCause();
+            throw error;
+        }
+    }
+
+}
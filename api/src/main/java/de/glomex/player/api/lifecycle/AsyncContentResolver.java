@@ -0,0 +1,35 @@
+package de.glomex.player.api.lifecycle;
+
+import de.glomex.player.api.media.Content;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non blocking resolver: player doesn't hold a thread while content is resolved.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public interface AsyncContentResolver extends ContentResolver {
+
+    /**
+     * Must not block. Returned stage completes either with content or exceptionally.
+     * Stage is cancelled, if possible, when content isn't needed anymore or resolving takes too long.
+     */
+    @NotNull CompletionStage<Content> resolveAsync(@NotNull MediaID mediaID);
+
+    @Override
+    default @NotNull Content resolve(@NotNull MediaID mediaID) {
+        try {
+            return resolveAsync(mediaID).toCompletableFuture().join();
+        } catch (CompletionException error) {
+            if (error.getCause() instanceof RuntimeException)
+                throw (RuntimeException) error.getCause();
+            throw error;
+        }
+    }
+
+}
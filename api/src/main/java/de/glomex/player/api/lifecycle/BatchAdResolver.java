@@ -0,0 +1,36 @@
+package de.glomex.player.api.lifecycle;
+
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Returns ad lists of many media per call.
+ * Player collects resolves issued within a short window into a single call.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public interface BatchAdResolver extends AdResolver {
+
+    /**
+     * Must either return value or throw an exception.
+     * Media missing in the result are treated as not found; media without ads should have empty list.
+     */
+    @NotNull Map<MediaID, List<Advertise>> resolveAll(@NotNull Collection<MediaID> mediaIDs);
+
+    @Override
+    default @NotNull List<Advertise> resolve(@NotNull MediaID mediaID) {
+        List<Advertise> ads = resolveAll(Collections.singleton(mediaID)).get(mediaID);
+        if (ads == null)
+            throw new NoSuchElementException("Ads not found: " + mediaID);
+        return ads;
+    }
+
+}
@@ -0,0 +1,35 @@
+package de.glomex.player.api.lifecycle;
+
+import de.glomex.player.api.media.Content;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Resolves many media per call, e.g. with a single backend request.
+ * Player collects resolves issued within a short window into a single call.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@SuppressWarnings("UnusedDeclaration")
+public interface BatchContentResolver extends ContentResolver {
+
+    /**
+     * Must either return content of media resolved or throw an exception.
+     * Media missing in the result are treated as not found.
+     */
+    @NotNull Map<MediaID, Content> resolveAll(@NotNull Collection<MediaID> mediaIDs);
+
+    @Override
+    default @NotNull Content resolve(@NotNull MediaID mediaID) {
+        Content content = resolveAll(Collections.singleton(mediaID)).get(mediaID);
+        if (content == null)
+            throw new NoSuchElementException("Content not found: " + mediaID);
+        return content;
+    }
+
+}
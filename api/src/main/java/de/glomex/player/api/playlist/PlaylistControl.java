@@ -49,6 +49,11 @@ public interface PlaylistControl extends ControlTag {
      */
     void setRepeatable(boolean state);
 
+    /**
+     * Number of upcoming items resolved in background, so switching to them is fast; 0 - none
+     */
+    void setLookahead(int items);
+
     /**
      * Switch to the content passed
      * It there is several content with the same id added, first found will be played.
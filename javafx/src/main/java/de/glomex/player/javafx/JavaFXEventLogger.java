@@ -1,16 +1,21 @@
 package de.glomex.player.javafx;
 
 import de.glomex.player.model.api.Logging;
-import de.glomex.player.model.events.EventLogger;
+import de.glomex.player.model.events.BatchEventLogger;
+import de.glomex.player.model.events.EventFormatter;
+import de.glomex.player.model.events.EventRecord;
 import javafx.scene.control.TextArea;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
+ * Appends the whole batch of events at once, so there is one FX thread switch per batch, not per event.
+ *
  * Created by <b>me@olexxa.com</b>
  */
-public class JavaFXEventLogger implements EventLogger {
+public class JavaFXEventLogger implements BatchEventLogger {
 
     private static final Logger log = Logging.getLogger(JavaFXEventLogger.class);
 
@@ -22,8 +27,22 @@ public class JavaFXEventLogger implements EventLogger {
 
     @Override
     public void logEvent(@NotNull String eventMessage) {
+        append(eventMessage + "\n");
+    }
+
+    @Override
+    public void logEvents(@NotNull List<EventRecord> events) {
+        StringBuilder text = new StringBuilder();
+        for (EventRecord event: events) {
+            EventFormatter.formatTo(event, text);
+            text.append('\n');
+        }
+        append(text.toString());
+    }
+
+    private void append(@NotNull String text) {
         JavaFXUtils.ensureFxThread(() -> {
-            logArea.appendText(eventMessage + "\n");
+            logArea.appendText(text);
             logArea.setScrollTop(Double.MAX_VALUE);
         });
     }
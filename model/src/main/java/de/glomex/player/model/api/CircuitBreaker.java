@@ -0,0 +1,81 @@
+package de.glomex.player.model.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Fails calls fast when the callee is unhealthy.
+ *
+ * Opens after threshold consecutive failures; after open period lets a single trial call through (half open):
+ * its success closes the breaker, failure opens it again. If trial call never reports (cancelled),
+ * next one is let through after another open period.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = Logging.getLogger(CircuitBreaker.class);
+
+    public enum State { closed, open, half_open }
+
+    private final @NotNull String name;
+    private final int threshold;
+    private final long openNanos;
+
+    private State state = State.closed;
+    private int failures;
+    private long openedAt;
+
+    public CircuitBreaker(@NotNull String name, int threshold, long openMillis) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("Threshold should be positive: " + threshold);
+        this.name = name;
+        this.threshold = threshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * @return false if call should fail fast
+     */
+    public synchronized boolean allow() {
+        if (state == State.closed)
+            return true;
+        long now = System.nanoTime();
+        if (now - openedAt < openNanos)
+            return false;
+        // trial call
+        state(State.half_open);
+        openedAt = now;
+        return true;
+    }
+
+    public synchronized void success() {
+        failures = 0;
+        if (state != State.closed)
+            state(State.closed);
+    }
+
+    public synchronized void failure() {
+        failures++;
+        if (state == State.half_open || state == State.closed && failures >= threshold) {
+            state(State.open);
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized @NotNull State state() {
+        return state;
+    }
+
+    // outer synchronization required
+    private void state(@NotNull State state) {
+        if (state == State.open)
+            log.warning(name + " circuit is open after " + failures + " failures");
+        else
+            log.info(name + " circuit is " + state);
+        this.state = state;
+    }
+
+}
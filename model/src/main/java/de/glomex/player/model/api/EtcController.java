@@ -3,8 +3,26 @@ package de.glomex.player.model.api;
 import de.glomex.player.api.etc.ShutdownListener;
 import de.glomex.player.api.etc.EtcControl;
 import de.glomex.player.api.lifecycle.AdResolver;
+import de.glomex.player.api.lifecycle.AsyncAdResolver;
+import de.glomex.player.api.lifecycle.AsyncContentResolver;
+import de.glomex.player.api.lifecycle.BatchAdResolver;
+import de.glomex.player.api.lifecycle.BatchContentResolver;
 import de.glomex.player.api.lifecycle.ContentResolver;
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.Content;
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.lifecycle.CachingAdResolver;
+import de.glomex.player.model.lifecycle.CachingContentResolver;
+import de.glomex.player.model.lifecycle.MicroBatcher;
+import de.glomex.player.model.lifecycle.ResolverCache;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * FIXME: Create default resolvers, they are mandatory even if API doesn't set them
@@ -13,10 +31,28 @@ import org.jetbrains.annotations.NotNull;
  */
 public class EtcController implements EtcControl {
 
+    public static final int CONTENT_CACHE_SIZE = 64;
+    public static final long CONTENT_TTL = TimeUnit.MINUTES.toMillis(5);
+    public static final long STREAM_TTL = TimeUnit.SECONDS.toMillis(30);
+    public static final long ERROR_TTL = TimeUnit.SECONDS.toMillis(5);
+    public static final int AD_CACHE_SIZE = 64;
+    // ad decisions depend on frequency capping and campaigns, so they get stale soon
+    public static final long AD_TTL = TimeUnit.MINUTES.toMillis(1);
+
     private final GlomexPlayer glomexPlayer;
 
     private ContentResolver contentResolver;
+    private @Nullable CachingContentResolver contentCache;
+    private @Nullable MicroBatcher<Content> contentBatcher;
+    private @Nullable Function<MediaID, CompletionStage<Content>> contentAsync;
+    private int contentCacheSize = CONTENT_CACHE_SIZE;
+    private long contentTtl = CONTENT_TTL, streamTtl = STREAM_TTL, errorTtl = ERROR_TTL;
     private AdResolver adResolver;
+    private @Nullable CachingAdResolver adCache;
+    private @Nullable MicroBatcher<List<Advertise>> adBatcher;
+    private @Nullable Function<MediaID, CompletionStage<List<Advertise>>> adAsync;
+    private int adCacheSize = AD_CACHE_SIZE;
+    private long adTtl = AD_TTL, adErrorTtl = ERROR_TTL;
     private boolean autoplay;
     private boolean fullscreen;
     private boolean autoShutdown;
@@ -59,25 +95,151 @@ public class EtcController implements EtcControl {
 
     @Override
     public void shutdown() {
-        glomexPlayer.shutdown();
+        glomexPlayer.shutdownAsync();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> shutdownAsync() {
+        return glomexPlayer.shutdownAsync();
     }
 
     @Override
-    public void contentResolver(@NotNull ContentResolver contentResolver) {
+    public synchronized void contentResolver(@NotNull ContentResolver contentResolver) {
         this.contentResolver = contentResolver;
+        setupContent();
+    }
+
+    @Override
+    public synchronized void contentCache(int size, long ttl, long streamTtl, long errorTtl) {
+        contentCacheSize = size;
+        contentTtl = ttl;
+        this.streamTtl = streamTtl;
+        this.errorTtl = errorTtl;
+        setupContent();
+    }
+
+    // new resolver or settings start with empty cache
+    private void setupContent() {
+        contentCache = contentResolver != null && contentCacheSize > 0?
+            new CachingContentResolver(contentResolver, contentCacheSize, contentTtl, streamTtl, errorTtl) :
+            null;
+        if (contentResolver instanceof BatchContentResolver) {
+            BatchContentResolver batch = (BatchContentResolver) contentResolver;
+            ResolverCache<Content> cache = contentCache();
+            contentBatcher = MicroBatcher.configured(
+                cache != null? mediaIDs -> cache.getAll(mediaIDs, batch::resolveAll) : batch::resolveAll,
+                glomexPlayer.resolverPool.content(), glomexPlayer.resolverPool.executor()
+            );
+        } else
+            contentBatcher = null;
+        if (contentResolver instanceof AsyncContentResolver) {
+            AsyncContentResolver async = (AsyncContentResolver) contentResolver;
+            ResolverCache<Content> cache = contentCache();
+            contentAsync = cache != null? mediaID -> cache.getAsync(mediaID, async::resolveAsync) : async::resolveAsync;
+        } else
+            contentAsync = null;
     }
 
-    public @NotNull ContentResolver contentResolver() {
+    public synchronized @NotNull ContentResolver contentResolver() {
+        return contentCache != null? contentCache : contentResolver;
+    }
+
+    /**
+     * As set by API, without cache: resolves by the same origin are shared between players, see SingleFlight
+     */
+    public synchronized @NotNull ContentResolver contentOrigin() {
         return contentResolver;
     }
 
+    public synchronized @Nullable ResolverCache<Content> contentCache() {
+        return contentCache != null? contentCache.cache() : null;
+    }
+
+    /**
+     * Set if content resolver resolves in batches
+     */
+    public synchronized @Nullable MicroBatcher<Content> contentBatcher() {
+        return contentBatcher;
+    }
+
+    /**
+     * Set if content resolver is asynchronous
+     */
+    public synchronized @Nullable Function<MediaID, CompletionStage<Content>> contentAsync() {
+        return contentAsync;
+    }
+
     @Override
-    public void adResolver(@NotNull AdResolver adResolver) {
+    public synchronized void adResolver(@NotNull AdResolver adResolver) {
         this.adResolver = adResolver;
+        setupAds();
     }
 
-    public @NotNull AdResolver adResolver() {
+    @Override
+    public synchronized void adCache(int size, long ttl, long errorTtl) {
+        adCacheSize = size;
+        adTtl = ttl;
+        adErrorTtl = errorTtl;
+        setupAds();
+    }
+
+    private void setupAds() {
+        adCache = adResolver != null && adCacheSize > 0?
+            new CachingAdResolver(adResolver, adCacheSize, adTtl, adErrorTtl) :
+            null;
+        if (adResolver instanceof BatchAdResolver) {
+            BatchAdResolver batch = (BatchAdResolver) adResolver;
+            ResolverCache<List<Advertise>> cache = adCache();
+            adBatcher = MicroBatcher.configured(
+                cache != null? mediaIDs -> cache.getAll(mediaIDs, missing -> CachingAdResolver.snapshots(batch.resolveAll(missing))) : batch::resolveAll,
+                glomexPlayer.resolverPool.ads(), glomexPlayer.resolverPool.executor()
+            );
+        } else
+            adBatcher = null;
+        if (adResolver instanceof AsyncAdResolver) {
+            AsyncAdResolver async = (AsyncAdResolver) adResolver;
+            ResolverCache<List<Advertise>> cache = adCache();
+            adAsync = cache != null?
+                mediaID -> cache.getAsync(mediaID, id -> async.resolveAsync(id).thenApply(CachingAdResolver::snapshot)) :
+                async::resolveAsync;
+        } else
+            adAsync = null;
+    }
+
+    public synchronized @NotNull AdResolver adResolver() {
+        return adCache != null? adCache : adResolver;
+    }
+
+    public synchronized @NotNull AdResolver adOrigin() {
         return adResolver;
     }
 
+    public synchronized @Nullable ResolverCache<List<Advertise>> adCache() {
+        return adCache != null? adCache.cache() : null;
+    }
+
+    public synchronized @Nullable MicroBatcher<List<Advertise>> adBatcher() {
+        return adBatcher;
+    }
+
+    public synchronized @Nullable Function<MediaID, CompletionStage<List<Advertise>>> adAsync() {
+        return adAsync;
+    }
+
+    @Override
+    public synchronized void invalidate(@NotNull MediaID mediaID) {
+        if (contentCache != null)
+            contentCache.cache().invalidate(mediaID);
+        if (adCache != null)
+            adCache.cache().invalidate(mediaID);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        if (contentCache != null)
+            contentCache.cache().clear();
+        if (adCache != null)
+            adCache.cache().clear();
+    }
+
 }
@@ -1,51 +1,376 @@
 package de.glomex.player.model.api;
 
+import de.glomex.player.model.metrics.ExecutionMetrics;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
+ * Executes player's tasks: resolvers, listener callbacks, tracking.
+ *
+ * Runs on a fixed pool of named daemon threads by default, or on any given executor service.
+ * On Java 21+ virtual thread per task mode is available as well; it is detected in runtime,
+ * so the same build runs on Java 8 (falls back to the pool).
+ * Many players in one JVM may share a bounded pool instead, see {@link SharedScheduler}.
+ * Timer is one for all the players either way.
+ *
+ * Tasks are queued by {@link Priority}: every task submitted adds a pump to the executor, and the pump runs
+ * the oldest task of the highest priority lane available. So task of higher priority waits for a free thread only,
+ * not for the tasks queued before it. Telemetry lane is bounded: under load it is deferred, then shed.
+ *
+ * Every task is accounted: queue depth, active tasks, wait and run time, see {@link #metrics()};
+ * the same per lane, see {@link #metrics(Priority)}.
+ *
+ * Configured with system properties, see {@link #configured()}:
+ *   - glomex.executor.threads - pool size
+ *   - glomex.executor.virtual - true for virtual thread per task
+ *   - glomex.executor.shared - true for the JVM-wide shared scheduler
+ *
  * Created by <b>me@olexxa.com</b>
  */
 public class ExecutionManager implements Executor {
 
     private final Logger log = Logging.getLogger(ExecutionManager.class);
 
-    private final static int MAX_THREADS = 5;
+    public final static int MAX_THREADS = 5;
+    public final static String THREAD_NAME = "glomex-worker";
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_THREADS);
+    private static volatile ScheduledExecutorService defaultTimer;
+    // shutting down manager checks for termination that often
+    private static final long TERMINATION_CHECK_MILLIS = 10;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final boolean shared;
+    private final ExecutionMetrics metrics = new ExecutionMetrics();
+
+    private static final Priority[] priorities = Priority.values();
+    private final List<Queue<Queued>> lanes = new ArrayList<>(priorities.length);
+    private final ExecutionMetrics[] laneMetrics;
+    private final Executor[] laneExecutors;
+    private final Runnable pump = this::pump;
+
+    // fires delayed tasks, they are executed by the pool; runs deadlines itself
+    private final ScheduledExecutorService timer;
+
+    public ExecutionManager() {
+        this(MAX_THREADS, THREAD_NAME);
+    }
+
+    public ExecutionManager(int threads, @NotNull String name) {
+        this(Executors.newFixedThreadPool(threads, threadFactory(name)), false, null);
+    }
+
+    /**
+     * Takes ownership of the executor: it is shut down with the manager.
+     */
+    public ExecutionManager(@NotNull ExecutorService executor) {
+        this(executor, false, null);
+    }
+
+    private ExecutionManager(@NotNull ExecutorService executor, boolean virtual, @Nullable SharedScheduler scheduler) {
+        this.executor = executor;
+        this.virtual = virtual;
+        this.shared = scheduler != null;
+        this.timer = scheduler != null? scheduler.timer() : defaultTimer();
+        laneMetrics = new ExecutionMetrics[priorities.length];
+        laneExecutors = new Executor[priorities.length];
+        for (Priority priority: priorities) {
+            lanes.add(new ConcurrentLinkedQueue<>());
+            laneMetrics[priority.ordinal()] = new ExecutionMetrics();
+            laneExecutors[priority.ordinal()] = task -> execute(priority, task);
+        }
+    }
+
+    /**
+     * Tasks are queued separately from other players, but executed by the shared workers; timer is shared as well.
+     */
+    public static @NotNull ExecutionManager shared(@NotNull SharedScheduler scheduler) {
+        return new ExecutionManager(scheduler.tenant(), false, scheduler);
+    }
+
+    // the same for all not shared managers, so timer threads don't grow with players count
+    private static @NotNull ScheduledExecutorService defaultTimer() {
+        if (defaultTimer == null)
+            synchronized (ExecutionManager.class) {
+                if (defaultTimer == null)
+                    defaultTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+                        Thread thread = new Thread(task, "glomex-timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            }
+        return defaultTimer;
+    }
+
+    /**
+     * Virtual thread per task if supported by JVM, otherwise default pool.
+     */
+    public static @NotNull ExecutionManager virtual() {
+        ExecutorService executor = virtualExecutor(THREAD_NAME);
+        if (executor != null)
+            return new ExecutionManager(executor, true, null);
+        Logging.getLogger(ExecutionManager.class).info("Virtual threads aren't supported, using thread pool");
+        return new ExecutionManager();
+    }
+
+    public static @NotNull ExecutionManager configured() {
+        if (Boolean.getBoolean("glomex.executor.shared"))
+            return shared(SharedScheduler.instance());
+        if (Boolean.getBoolean("glomex.executor.virtual"))
+            return virtual();
+        return new ExecutionManager(Integer.getInteger("glomex.executor.threads", MAX_THREADS), THREAD_NAME);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Runs on the workers of {@link SharedScheduler}: player's components shouldn't start threads of their own.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    public @NotNull ExecutionMetrics metrics() {
+        return metrics;
+    }
+
+    public @NotNull ExecutionMetrics metrics(@NotNull Priority priority) {
+        return laneMetrics[priority.ordinal()];
+    }
+
+    /**
+     * Executor, running tasks with the priority given
+     */
+    public @NotNull Executor lane(@NotNull Priority priority) {
+        return laneExecutors[priority.ordinal()];
+    }
 
     void shutdown() {
-        log.entering("ExecutionManager", "shutdown");
+        shutdownAsync(ShutdownPolicy.drain, 1, TimeUnit.SECONDS).join();
+    }
+
+    /**
+     * Doesn't block: termination is checked by the timer, no thread is waiting for it.
+     * New tasks are rejected immediately; queued ones are handled according to policy.
+     * Drained tasks, which don't complete within timeout, are dropped and interrupted.
+     */
+    @NotNull CompletableFuture<Void> shutdownAsync(@NotNull ShutdownPolicy policy, long timeout, @NotNull TimeUnit unit) {
+        log.entering("ExecutionManager", "shutdown", policy);
+        // timer is shared: delayed tasks of this manager are cancelled by rejection, see schedule
+        if (policy == ShutdownPolicy.drop)
+            drop();
         executor.shutdown();
-        try {
-            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-                if (!executor.awaitTermination(1, TimeUnit.SECONDS))
-                    log.severe("Error terminating thread pool");
+        Termination termination = new Termination(unit.toNanos(timeout));
+        termination.run();
+        return termination.terminated;
+    }
+
+    // re-schedules itself until the executor is terminated; once timed out, drops the tasks left and waits again
+    private class Termination implements Runnable {
+
+        final CompletableFuture<Void> terminated = new CompletableFuture<>();
+        private final long timeout;
+        private long deadline;
+        private boolean dropped;
+
+        Termination(long timeout) {
+            this.timeout = timeout;
+            this.deadline = System.nanoTime() + timeout;
+        }
+
+        @Override
+        public void run() {
+            if (!executor.isTerminated()) {
+                if (deadline - System.nanoTime() > 0) {
+                    timer.schedule(this, TERMINATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                if (!dropped) {
+                    dropped = true;
+                    drop();
+                    deadline = System.nanoTime() + timeout;
+                    timer.schedule(this, TERMINATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                log.severe("Error terminating thread pool");
+            }
+            log.fine("Executor metrics: " + metrics);
+            for (Priority priority: priorities)
+                log.fine(priority + " lane metrics: " + metrics(priority));
+            terminated.complete(null);
+        }
+
+    }
+
+    // queued tasks are discarded, pumps left find nothing to run; futures are cancelled, so their waiters don't hang
+    private void drop() {
+        for (Priority priority: priorities) {
+            Queue<Queued> lane = lanes.get(priority.ordinal());
+            Queued queued;
+            while ((queued = lane.poll()) != null) {
+                laneMetrics[priority.ordinal()].discard();
+                if (queued.task instanceof Future)
+                    ((Future<?>) queued.task).cancel(false);
             }
-        } catch (InterruptedException interrupted) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+        for (Runnable ignored: executor.shutdownNow())
+            metrics.discard();
+    }
+
+    /**
+     * Runs tasks in parallel, future completes when all of them are done.
+     */
+    @SafeVarargs
+    public final @NotNull <T> CompletableFuture<Results<T>> executeAll(@NotNull Callable<? extends T>... tasks) {
+        // tasks are copied, the array itself isn't passed on
+        List<Callable<? extends T>> list = new ArrayList<>(tasks.length);
+        for (Callable<? extends T> task: tasks)
+            list.add(task);
+        return executeAll(Priority.callbacks, list, 0, 0, TimeUnit.MILLISECONDS);
     }
 
-    @SuppressWarnings("unchecked")
-    public void executeAll(@NotNull Callable... tasks) {
-        ExecutorCompletionService executorCompletionService = new ExecutorCompletionService(executor);
-        for (Callable task: tasks)
-            executorCompletionService.submit(task);
+    /**
+     * Runs tasks in parallel, future completes when all of them are done or the deadline is reached,
+     * with partial results: tasks, which missed their deadline, are cancelled and reported as timed out.
+     * Cancelling the future cancels the tasks.
+     *
+     * @param taskTimeout deadline of every task, counted since submission; 0 - none
+     * @param timeout overall deadline; 0 - none
+     */
+    public @NotNull <T> CompletableFuture<Results<T>> executeAll(
+        @NotNull Priority priority, @NotNull List<? extends Callable<? extends T>> tasks,
+        long taskTimeout, long timeout, @NotNull TimeUnit unit
+    ) {
+        return FanOut.execute(this, priority, tasks, taskTimeout, timeout, unit);
     }
 
     public @NotNull <T> Future<T> submit(@NotNull Callable<T> task) {
-        return executor.submit(task);
+        return submit(Priority.callbacks, task);
+    }
+
+    public @NotNull <T> Future<T> submit(@NotNull Priority priority, @NotNull Callable<T> task) {
+        // own future task: it runs (and is accounted) even if cancelled
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(priority, future);
+        return future;
     }
 
     @Override
     public void execute(@NotNull Runnable task) {
-        executor.execute(task);
+        execute(Priority.callbacks, task);
     }
 
-}
+    /**
+     * Task of a bounded lane is rejected if the lane is full, see {@link Priority#limit()}.
+     *
+     * @throws RejectedExecutionException if the lane is full or the manager is shut down
+     */
+    public void execute(@NotNull Priority priority, @NotNull Runnable task) {
+        if (!offer(priority, task))
+            throw new RejectedExecutionException(priority + " lane is full");
+    }
+
+    // false if the lane is full: task is dropped
+    private boolean offer(@NotNull Priority priority, @NotNull Runnable task) {
+        ExecutionMetrics laneMetrics = this.laneMetrics[priority.ordinal()];
+        if (priority.limit() > 0 && laneMetrics.queued() >= priority.limit()) {
+            laneMetrics.drop();
+            return false;
+        }
+        Queue<Queued> lane = lanes.get(priority.ordinal());
+        Queued queued = new Queued(task, laneMetrics.wrap(task));
+        lane.offer(queued);
+        Runnable wrapped = metrics.wrap(pump);
+        try {
+            executor.execute(wrapped);
+        } catch (RejectedExecutionException rejected) {
+            metrics.reject();
+            // could be already taken by the pump of another task
+            if (lane.remove(queued)) {
+                laneMetrics.reject();
+                throw rejected;
+            }
+        }
+        return true;
+    }
+
+    // one pump per task queued, so there is a task for every pump
+    private void pump() {
+        for (Queue<Queued> lane: lanes) {
+            Queued queued = lane.poll();
+            if (queued != null) {
+                queued.wrapped.run();
+                return;
+            }
+        }
+    }
+
+    private static class Queued {
+        final @NotNull Runnable task;
+        final @NotNull Runnable wrapped; // accounted
 
+        Queued(@NotNull Runnable task, @NotNull Runnable wrapped) {
+            this.task = task;
+            this.wrapped = wrapped;
+        }
+    }
+
+    // once executor is shut down, execute throws, which cancels periodic task; if the lane is full, it's skipped
+    public @NotNull ScheduledFuture<?> schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return schedule(Priority.callbacks, task, delay, unit);
+    }
+
+    public @NotNull ScheduledFuture<?> schedule(@NotNull Priority priority, @NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return timer.schedule(() -> offer(priority, task), delay, unit);
+    }
+
+    /**
+     * Action runs on the timer thread itself, not on the pool, so it fires however busy the pool is.
+     * Meant for deadlines: action must be short and must not block, e.g. cancel a task.
+     */
+    public @NotNull ScheduledFuture<?> deadline(@NotNull Runnable action, long delay, @NotNull TimeUnit unit) {
+        return timer.schedule(action, delay, unit);
+    }
+
+    public @NotNull ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return scheduleWithFixedDelay(Priority.callbacks, task, delay, unit);
+    }
+
+    public @NotNull ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Priority priority, @NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return timer.scheduleWithFixedDelay(() -> offer(priority, task), delay, delay, unit);
+    }
+
+    private static @NotNull ThreadFactory threadFactory(@NotNull String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory()), Java 21+
+    private static @Nullable ExecutorService virtualExecutor(@NotNull String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) executor.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException unsupported) {
+            return null;
+        }
+    }
+
+}
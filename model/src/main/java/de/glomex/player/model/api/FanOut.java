@@ -0,0 +1,120 @@
+package de.glomex.player.model.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs tasks in parallel and collects their outcomes into {@link Results}.
+ *
+ * Task outcome is settled once, by whichever comes first: completion, its deadline, overall deadline or cancellation.
+ * Tasks settled by deadline or cancellation are cancelled (interrupted), so stragglers don't hold threads.
+ * Composite future completes as soon as every task is settled, it never completes exceptionally
+ * unless cancelled itself.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+class FanOut<T> {
+
+    private final Object[] values;
+    private final Throwable[] errors;
+    private final AtomicIntegerArray settled;
+    private final AtomicInteger remaining;
+    // set by submitting thread, read by settling and cancelling ones
+    private final AtomicReferenceArray<Future<?>> futures;
+    private final AtomicReferenceArray<Future<?>> timers;
+    private final CompletableFuture<Results<T>> result = new CompletableFuture<>();
+    private volatile @Nullable ScheduledFuture<?> deadline;
+
+    private FanOut(int size) {
+        values = new Object[size];
+        errors = new Throwable[size];
+        settled = new AtomicIntegerArray(size);
+        remaining = new AtomicInteger(size);
+        futures = new AtomicReferenceArray<>(size);
+        timers = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * @param taskTimeout since submission, including time in queue; 0 - none
+     * @param timeout overall; 0 - none
+     */
+    static @NotNull <T> CompletableFuture<Results<T>> execute(
+        @NotNull ExecutionManager executor, @NotNull Priority priority, @NotNull List<? extends Callable<? extends T>> tasks,
+        long taskTimeout, long timeout, @NotNull TimeUnit unit
+    ) {
+        FanOut<T> fanOut = new FanOut<>(tasks.size());
+        if (tasks.isEmpty()) {
+            fanOut.result.complete(new Results<>(fanOut.values, fanOut.errors));
+            return fanOut.result;
+        }
+        // cancelling the composite cancels the tasks
+        fanOut.result.whenComplete((results, error) -> {
+            if (fanOut.result.isCancelled())
+                fanOut.cancelAll(new CancellationException());
+        });
+        if (timeout > 0)
+            fanOut.deadline = executor.schedule(priority, () -> fanOut.cancelAll(new TimeoutException("Deadline exceeded")), timeout, unit);
+        for (int i = 0; i < tasks.size(); i++) {
+            int index = i;
+            Callable<? extends T> task = tasks.get(i);
+            try {
+                fanOut.futures.set(i, executor.submit(priority, () -> {
+                    try {
+                        fanOut.settle(index, task.call(), null);
+                    } catch (Throwable error) {
+                        fanOut.settle(index, null, error);
+                    }
+                    return null;
+                }));
+            } catch (RejectedExecutionException rejected) {
+                fanOut.settle(index, null, rejected);
+                continue;
+            }
+            if (taskTimeout > 0) {
+                Future<?> timer = executor.schedule(priority, () -> fanOut.cancel(index, new TimeoutException("Task deadline exceeded")), taskTimeout, unit);
+                fanOut.timers.set(i, timer);
+                if (fanOut.settled.get(i) != 0)
+                    timer.cancel(false);
+            }
+        }
+        return fanOut.result;
+    }
+
+    // first outcome wins; outcomes are published to the completing thread by remaining counter
+    private boolean settle(int index, @Nullable Object value, @Nullable Throwable error) {
+        if (!settled.compareAndSet(index, 0, 1))
+            return false;
+        values[index] = value;
+        errors[index] = error;
+        Future<?> timer = timers.get(index);
+        if (timer != null)
+            timer.cancel(false);
+        if (remaining.decrementAndGet() == 0) {
+            ScheduledFuture<?> deadline = this.deadline;
+            if (deadline != null)
+                deadline.cancel(false);
+            result.complete(new Results<>(values, errors));
+        }
+        return true;
+    }
+
+    private void cancel(int index, @NotNull Throwable reason) {
+        if (settle(index, null, reason)) {
+            Future<?> future = futures.get(index);
+            if (future != null)
+                future.cancel(true);
+        }
+    }
+
+    private void cancelAll(@NotNull Throwable reason) {
+        for (int i = 0; i < futures.length(); i++)
+            cancel(i, reason);
+    }
+
+}
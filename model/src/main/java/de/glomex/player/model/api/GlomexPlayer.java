@@ -9,11 +9,20 @@ import de.glomex.player.api.playlist.PlaylistControl;
 import de.glomex.player.model.events.EventHandler;
 import de.glomex.player.model.events.EventLogger;
 import de.glomex.player.model.events.SubscribeManager;
+import de.glomex.player.model.journal.EventJournal;
+import de.glomex.player.model.lifecycle.ResolverPool;
 import de.glomex.player.model.player.MediaPlayerFactory;
 import de.glomex.player.model.playlist.EmptyPlaylistListener;
 import de.glomex.player.model.playlist.PlaylistManager;
+import de.glomex.player.model.tracking.TrackingSink;
+import de.glomex.player.model.tracking.TrackingSpool;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -28,14 +37,23 @@ public class GlomexPlayer implements PlayerAPI {
     final SubscribeManager subscribeManager;
 
     final ExecutionManager executionManager;
+    final ResolverPool resolverPool;
     final ActionDispatcher actionDispatcher;
     final EventHandler eventHandler;
 
     final MediaPlayerFactory mediaPlayerFactory;
 
+    // queued tasks are given that long to complete on shutdown
+    private static final long DRAIN_TIMEOUT = 500;
+
+    private volatile @NotNull ShutdownPolicy shutdownPolicy = ShutdownPolicy.drain;
+    private @Nullable CompletableFuture<Void> shutdown;
+    private volatile long shutdownNanos = -1;
+
     public GlomexPlayer() {
         mediaPlayerFactory = MediaPlayerFactory.get();
-        executionManager = new ExecutionManager();
+        executionManager = ExecutionManager.configured();
+        resolverPool = ResolverPool.configured(executionManager);
         actionDispatcher = new ActionDispatcher();
         subscribeManager = new SubscribeManager();
         eventHandler = new EventHandler(subscribeManager, executionManager);
@@ -72,13 +90,45 @@ public class GlomexPlayer implements PlayerAPI {
         return actionDispatcher.playbackProxy();
     }
 
-    void shutdown() {
+    /**
+     * Doesn't block the caller, future completes when everything is released.
+     * Order: resolvers are cancelled, players are disposed (in parallel), queued tasks are drained or dropped
+     * (see {@link #shutdownPolicy}), then event sinks are closed. Repeated calls return the same future.
+     */
+    synchronized @NotNull CompletableFuture<Void> shutdownAsync() {
+        if (shutdown != null)
+            return shutdown;
         log.finest("Glomex Player shutdown");
+        long started = System.nanoTime();
         ShutdownListener shutdownListener = eventHandler.shutdownListener();
-            shutdownListener.onShutdown();
-        executionManager.shutdown();
-        playlistManager.shutdown();
-        subscribeManager.shutdown();
+        shutdownListener.onShutdown();
+        shutdown = playlistManager.shutdown()
+            .handle((disposed, error) -> null)
+            .thenCompose(ignored -> CompletableFuture.allOf(
+                // resolving is cancelled already, nothing to drain
+                resolverPool.executor() == executionManager? CompletableFuture.completedFuture(null)
+                    : resolverPool.executor().shutdownAsync(ShutdownPolicy.drop, DRAIN_TIMEOUT, TimeUnit.MILLISECONDS),
+                executionManager.shutdownAsync(shutdownPolicy, DRAIN_TIMEOUT, TimeUnit.MILLISECONDS)
+            ))
+            .whenComplete((terminated, error) -> {
+                eventHandler.shutdown();
+                subscribeManager.shutdown();
+                shutdownNanos = System.nanoTime() - started;
+                log.fine("Glomex Player shut down in " + TimeUnit.NANOSECONDS.toMillis(shutdownNanos) + "ms");
+            });
+        return shutdown;
+    }
+
+    public void shutdownPolicy(@NotNull ShutdownPolicy policy) {
+        shutdownPolicy = policy;
+    }
+
+    /**
+     * Time from shutdown request till everything is released, -1 if not shut down yet
+     */
+    public long shutdownMillis() {
+        long nanos = shutdownNanos;
+        return nanos < 0? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
     }
 
     // todo; could be better
@@ -86,4 +136,18 @@ public class GlomexPlayer implements PlayerAPI {
         eventHandler.addLogger(logger);
     }
 
+    /**
+     * Enables tracking. Events, which couldn't be sent, are kept in spool file (if given) and resent later.
+     */
+    public void startTracking(@NotNull TrackingSink sink, @Nullable Path spoolFile) {
+        eventHandler.tracker().start(sink, spoolFile != null? new TrackingSpool(spoolFile) : null);
+    }
+
+    /**
+     * Records all events into memory-mapped journal in the directory given.
+     */
+    public void startJournal(@NotNull Path directory) throws IOException {
+        eventHandler.startJournal(new EventJournal(directory));
+    }
+
 }
@@ -9,6 +9,7 @@ import de.glomex.player.api.lifecycle.LifecycleListener;
 import de.glomex.player.api.playback.PlaybackListener;
 import de.glomex.player.model.events.EventHandler;
 import de.glomex.player.model.events.SubscribeManager;
+import de.glomex.player.model.lifecycle.ResolverPool;
 import de.glomex.player.model.player.MediaPlayerFactory;
 import de.glomex.player.model.player.PlayerListener;
 import org.jetbrains.annotations.NotNull;
@@ -39,6 +40,7 @@ public class GlomexPlayerFactory {
         protected void configure() {
             bind(GlomexPlayer.class).toInstance(glomexPlayer);
             bind(ExecutionManager.class).toInstance(glomexPlayer.executionManager);
+            bind(ResolverPool.class).toInstance(glomexPlayer.resolverPool);
             bind(MediaPlayerFactory.class).toInstance(glomexPlayer.mediaPlayerFactory);
 
             bind(ActionDispatcher.class).toInstance(glomexPlayer.actionDispatcher);
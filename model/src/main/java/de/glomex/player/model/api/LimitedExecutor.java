@@ -0,0 +1,106 @@
+package de.glomex.player.model.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs at most limit tasks at once on the underlying executor, the rest wait in own queue without holding threads.
+ * If the underlying executor rejects a queued task (e.g. it is shut down), the task is cancelled if it's a future,
+ * so its waiters don't hang; task being executed is rejected to the caller.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class LimitedExecutor implements Executor {
+
+    private static final Logger log = Logging.getLogger(LimitedExecutor.class);
+
+    private final @NotNull Executor executor;
+    private final int limit;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public LimitedExecutor(@NotNull Executor executor, int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit should be positive: " + limit);
+        this.executor = executor;
+        this.limit = limit;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        queue.offer(task);
+        drain(task);
+    }
+
+    private void drain(@Nullable Runnable submitted) {
+        RejectedExecutionException rejectedSubmitted = null;
+        int current;
+        while ((current = running.get()) < limit && !queue.isEmpty())
+            if (running.compareAndSet(current, current + 1)) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    running.decrementAndGet(); // taken by another drain
+                    continue;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            running.decrementAndGet();
+                            drain(null);
+                        }
+                    });
+                } catch (RejectedExecutionException rejected) {
+                    running.decrementAndGet();
+                    if (task == submitted)
+                        rejectedSubmitted = rejected;
+                    else
+                        fail(task, rejected);
+                }
+            }
+        if (rejectedSubmitted != null)
+            throw rejectedSubmitted;
+    }
+
+    private static void fail(@NotNull Runnable task, @NotNull RejectedExecutionException rejected) {
+        if (task instanceof Future)
+            ((Future<?>) task).cancel(false);
+        else
+            log.warning("Queued task is rejected: " + rejected.getMessage());
+    }
+
+    /**
+     * Takes back the task waiting for the limit
+     *
+     * @return false if the task is already started
+     */
+    public boolean remove(@NotNull Runnable task) {
+        return queue.remove(task);
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    /**
+     * Tasks waiting for the limit
+     */
+    public int queued() {
+        return queue.size();
+    }
+
+}
@@ -0,0 +1,40 @@
+package de.glomex.player.model.api;
+
+/**
+ * Priority classes of player's tasks, highest first.
+ * Queued task of higher class is always started before any queued task of a lower one,
+ * see {@link ExecutionManager#execute(Priority, Runnable)}.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public enum Priority {
+
+    /** internal listeners, which drive the player (e.g. playlist switching to the next media) */
+    control(0),
+
+    /** lifecycle work; blocking resolver calls are limited per resolver, see ResolverPool */
+    lifecycle(0),
+
+    /** 3rd party listeners and event publishers */
+    callbacks(0),
+
+    /** tracking: deferred under load, shed when too many are queued */
+    telemetry(1000),
+
+    /** speculative work, e.g. resolving upcoming media */
+    prefetch(16);
+
+    private final int limit;
+
+    Priority(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Max tasks queued, the rest are rejected; 0 - unbounded
+     */
+    public int limit() {
+        return limit;
+    }
+
+}
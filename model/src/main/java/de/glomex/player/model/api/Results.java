@@ -0,0 +1,86 @@
+package de.glomex.player.model.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outcome of tasks executed together (see {@link ExecutionManager#executeAll}), in order tasks were given.
+ * Every task either succeeded with a value, or failed with an error:
+ * TimeoutException if it didn't make its deadline, CancellationException if cancelled.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class Results<T> {
+
+    private final Object[] values;
+    private final Throwable[] errors;
+
+    Results(@NotNull Object[] values, @NotNull Throwable[] errors) {
+        this.values = values;
+        this.errors = errors;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean succeeded(int index) {
+        return errors[index] == null;
+    }
+
+    /**
+     * True if every task succeeded
+     */
+    public boolean complete() {
+        for (Throwable error: errors)
+            if (error != null)
+                return false;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable T value(int index) {
+        return (T) values[index];
+    }
+
+    public @Nullable Throwable error(int index) {
+        return errors[index];
+    }
+
+    public boolean timedOut(int index) {
+        return errors[index] instanceof TimeoutException;
+    }
+
+    public boolean cancelled(int index) {
+        return errors[index] instanceof CancellationException;
+    }
+
+    /**
+     * Values of succeeded tasks, in order
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<T> values() {
+        List<T> succeeded = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++)
+            if (errors[i] == null)
+                succeeded.add((T) values[i]);
+        return succeeded;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        int failed = 0, timedOut = 0;
+        for (int i = 0; i < errors.length; i++)
+            if (timedOut(i))
+                timedOut++;
+            else if (!succeeded(i))
+                failed++;
+        return size() + " tasks, " + (size() - failed - timedOut) + " succeeded, " + failed + " failed, " + timedOut + " timed out";
+    }
+
+}
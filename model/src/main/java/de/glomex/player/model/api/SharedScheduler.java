@@ -0,0 +1,218 @@
+package de.glomex.player.model.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of workers, shared by many players in one JVM (see {@link ExecutionManager#shared}),
+ * so thread count doesn't grow with players count.
+ *
+ * Every player is a tenant with its own queue. Workers serve tenants round robin, one task at a time,
+ * so busy player delays others by at most one task per worker.
+ * Tenant is served by a limited number of workers at once, so blocked tasks of one player
+ * can't occupy the whole pool.
+ *
+ * Workers and timer are daemon threads, which live as long as the scheduler.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class SharedScheduler {
+
+    private static final Logger log = Logging.getLogger(SharedScheduler.class);
+
+    private static volatile SharedScheduler instance;
+
+    private final int maxPerTenant;
+    private final BlockingQueue<Tenant> ready = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param threads workers count
+     * @param maxPerTenant max workers serving one tenant at once
+     */
+    public SharedScheduler(int threads, int maxPerTenant) {
+        this(threads, maxPerTenant, "glomex-shared");
+    }
+
+    /**
+     * @param name prefix of thread names
+     */
+    public SharedScheduler(int threads, int maxPerTenant, @NotNull String name) {
+        if (threads < 1 || maxPerTenant < 1)
+            throw new IllegalArgumentException("At least one thread is required");
+        this.maxPerTenant = Math.min(maxPerTenant, threads);
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = new Thread(this::work, name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name + "-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * JVM-wide scheduler, configured with system properties:
+     *   - glomex.executor.shared.threads - workers count, number of processors by default (at least 2)
+     *   - glomex.executor.shared.perPlayer - max workers per player, half of workers by default
+     */
+    public static @NotNull SharedScheduler instance() {
+        if (instance == null)
+            synchronized (SharedScheduler.class) {
+                if (instance == null) {
+                    int threads = Integer.getInteger("glomex.executor.shared.threads", Math.max(2, Runtime.getRuntime().availableProcessors()));
+                    int perTenant = Integer.getInteger("glomex.executor.shared.perPlayer", Math.max(1, threads / 2));
+                    instance = new SharedScheduler(threads, perTenant);
+                }
+            }
+        return instance;
+    }
+
+    public int threads() {
+        return workers.size();
+    }
+
+    /**
+     * New tenant queue, looking as a separate executor service.
+     * Shutting it down affects this tenant only.
+     */
+    public @NotNull ExecutorService tenant() {
+        return new Tenant();
+    }
+
+    @NotNull ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    private void work() {
+        while (true) {
+            Tenant tenant;
+            try {
+                tenant = ready.take();
+            } catch (InterruptedException interrupted) {
+                continue; // workers live forever, interruption is meant for the task
+            }
+            tenant.runNext();
+            Thread.interrupted(); // don't leak task's interruption to the next tenant
+        }
+    }
+
+    /**
+     * Has a number of tokens (at most maxPerTenant) circulating through ready queue while it has tasks;
+     * every token means one worker may serve the tenant.
+     */
+    private class Tenant extends AbstractExecutorService {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger tokens = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile boolean shutdown;
+        // workers running tasks of this tenant, guarded by itself: interruption mustn't reach the next tenant's task
+        private final Set<Thread> serving = new HashSet<>();
+
+        @Override
+        public void execute(@NotNull Runnable task) {
+            if (shutdown)
+                throw new RejectedExecutionException("Executor is shut down");
+            tasks.offer(task);
+            schedule();
+        }
+
+        private void schedule() {
+            int current;
+            while ((current = tokens.get()) < maxPerTenant && !tasks.isEmpty())
+                if (tokens.compareAndSet(current, current + 1)) {
+                    ready.offer(this);
+                    return;
+                }
+        }
+
+        // worker thread
+        void runNext() {
+            // active before poll: shutdown in between still sees the task, either queued or active
+            active.incrementAndGet();
+            Runnable task = tasks.poll();
+            if (task == null)
+                active.decrementAndGet();
+            else {
+                Thread worker = Thread.currentThread();
+                synchronized (serving) {
+                    serving.add(worker);
+                }
+                try {
+                    task.run();
+                } catch (Throwable error) {
+                    log.log(Level.WARNING, "Exception in task", error);
+                } finally {
+                    synchronized (serving) {
+                        serving.remove(worker);
+                    }
+                    active.decrementAndGet();
+                }
+            }
+            if (!tasks.isEmpty())
+                ready.offer(this); // back to the tail: round robin
+            else {
+                tokens.decrementAndGet();
+                schedule(); // task could be added meanwhile
+                checkTerminated();
+            }
+        }
+
+        private void checkTerminated() {
+            if (shutdown && tasks.isEmpty() && active.get() == 0)
+                terminated.countDown();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            checkTerminated();
+        }
+
+        @Override
+        public @NotNull List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>();
+            Runnable task;
+            while ((task = tasks.poll()) != null)
+                pending.add(task);
+            synchronized (serving) {
+                serving.forEach(Thread::interrupt);
+            }
+            checkTerminated();
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return terminated.getCount() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+            return terminated.await(timeout, unit);
+        }
+
+    }
+
+}
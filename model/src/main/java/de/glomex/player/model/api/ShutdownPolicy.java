@@ -0,0 +1,16 @@
+package de.glomex.player.model.api;
+
+/**
+ * What happens to tasks (listener callbacks, tracking, etc), which are queued when player is shut down.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public enum ShutdownPolicy {
+
+    /** queued tasks are executed, until drain timeout; the rest are dropped */
+    drain,
+
+    /** queued tasks are dropped, running ones are interrupted */
+    drop
+
+}
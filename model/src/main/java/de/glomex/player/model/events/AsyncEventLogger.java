@@ -0,0 +1,194 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.model.api.Logging;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous stage in front of loggers.
+ *
+ * Events are put into bounded queue by emitting thread; drain task delivers them in batches, one batch per task:
+ * {@link BatchEventLogger}s get the whole batch, plain loggers - event by event.
+ * Drain task runs on own background thread, or on the executor given (e.g. a lane of shared scheduler).
+ * When queue is full, event is either dropped (and counted) or emitting thread waits, accordingly to overflow policy;
+ * waiting thread gives up (and drops the event) when the logger is shut down.
+ * Once shut down, logger takes neither new loggers nor events; events are counted as late.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class AsyncEventLogger {
+
+    private static final Logger log = Logging.getLogger(AsyncEventLogger.class);
+
+    public enum LoggerOverflow { drop, block }
+
+    // blocked emitting thread re-checks for shutdown that often
+    private static final long BLOCK_CHECK_MILLIS = 100;
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_BATCH = 256;
+
+    private final @NotNull LoggerOverflow overflow;
+    private final int batch;
+
+    private final BlockingQueue<EventRecord> queue;
+    private final List<EventLogger> loggers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder late = new LongAdder();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile Executor executor;
+    private @Nullable ExecutorService drainer; // own thread, started with the first logger
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    public AsyncEventLogger() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH, LoggerOverflow.drop);
+    }
+
+    public AsyncEventLogger(int capacity, int batch, @NotNull LoggerOverflow overflow) {
+        this(null, capacity, batch, overflow);
+    }
+
+    /**
+     * Executor mustn't run the emitting threads with block overflow policy:
+     * blocked emitters could hold all of its threads, so the drain task would never run.
+     *
+     * @param executor runs drain tasks; null - own thread
+     */
+    public AsyncEventLogger(@Nullable Executor executor, int capacity, int batch, @NotNull LoggerOverflow overflow) {
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batch = batch;
+        this.overflow = overflow;
+    }
+
+    public synchronized void addLogger(@NotNull EventLogger logger) {
+        if (closed) {
+            log.warning("Event logger is shut down, " + logger + " is ignored");
+            return;
+        }
+        loggers.add(logger);
+        if (executor == null) {
+            drainer = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "glomex-event-logger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor = drainer;
+        }
+        running = true;
+    }
+
+    public boolean isEmpty() {
+        return loggers.isEmpty();
+    }
+
+    public void logEvent(@NotNull EventRecord event) {
+        if (!running) {
+            if (closed)
+                late.increment();
+            return;
+        }
+        if (overflow == LoggerOverflow.block)
+            try {
+                while (!queue.offer(event, BLOCK_CHECK_MILLIS, TimeUnit.MILLISECONDS))
+                    if (!running) {
+                        dropped.increment();
+                        return;
+                    }
+            } catch (InterruptedException interrupted) {
+                dropped.increment();
+                Thread.currentThread().interrupt();
+            }
+        else if (!queue.offer(event))
+            dropped.increment();
+        drainLater();
+    }
+
+    // at most one drain task is queued or running
+    private void drainLater() {
+        if (queue.isEmpty() || !draining.compareAndSet(false, true))
+            return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException rejected) {
+            // executor is shut down: the rest is flushed by the caller
+            if (running)
+                draining.set(false);
+            else
+                drain();
+        }
+    }
+
+    // one batch, then the task is queued again, so executor's other tasks aren't held;
+    // after shutdown - the rest, so events raised before shutdown aren't lost
+    private void drain() {
+        List<EventRecord> events = new ArrayList<>(batch);
+        while (queue.drainTo(events, batch) > 0) {
+            deliver(events);
+            if (running)
+                break;
+        }
+        draining.set(false);
+        drainLater(); // event could be queued meanwhile
+    }
+
+    private void deliver(@NotNull List<EventRecord> events) {
+        for (EventLogger logger: loggers)
+            try {
+                if (logger instanceof BatchEventLogger)
+                    ((BatchEventLogger) logger).logEvents(events);
+                else
+                    for (EventRecord event: events)
+                        logger.logEvent(event);
+            } catch (RuntimeException error) {
+                log.warning("Exception in event logger " + error.getMessage());
+            }
+        delivered.add(events.size());
+        batches.increment();
+        events.clear();
+    }
+
+    public synchronized void shutdown() {
+        closed = true;
+        running = false;
+        drainLater();
+        if (drainer != null)
+            drainer.shutdown(); // queued drain task still runs
+    }
+
+    public long delivered() {
+        return delivered.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Events raised after shutdown
+     */
+    public long late() {
+        return late.sum();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+}
@@ -0,0 +1,20 @@
+package de.glomex.player.model.events;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Logger, which accepts events in batches.
+ * Preferable for loggers with expensive per-call overhead, e.g. thread switching or I/O.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public interface BatchEventLogger extends EventLogger {
+
+    /**
+     * List passed is reused after the call and must not be retained.
+     */
+    void logEvents(@NotNull List<EventRecord> events);
+
+}
@@ -0,0 +1,52 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Base for hand-written listener implementations, which fan events out to subscribed listeners.
+ * Each subclass implements exactly one listener interface and calls listeners' methods directly,
+ * so no reflection, argument arrays or boxing happens on the dispatch path.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+abstract class Dispatcher<L extends ListenerTag> {
+
+    protected final @NotNull EventHandler handler;
+    private final @NotNull Class<L> type;
+
+    Dispatcher(@NotNull EventHandler handler, @NotNull Class<L> type) {
+        this.handler = handler;
+        this.type = type;
+    }
+
+    @NotNull Class<L> type() {
+        return type;
+    }
+
+    protected void event(@NotNull EventKind kind) {
+        handler.event(kind, null, null, 0);
+    }
+
+    protected void event(@NotNull EventKind kind, @NotNull Object arg) {
+        handler.event(kind, arg, null, 0);
+    }
+
+    protected void event(@NotNull EventKind kind, @NotNull Object first, @NotNull Object second) {
+        handler.event(kind, first, second, 0);
+    }
+
+    protected void event(@NotNull EventKind kind, long value) {
+        handler.event(kind, null, null, value);
+    }
+
+    /**
+     * The same call instance is shared between all listeners, so event costs one lambda regardless of listeners count.
+     */
+    protected void fanOut(@NotNull EventKind kind, @NotNull Consumer<L> call) {
+        handler.fanOut(kind, call);
+    }
+
+}
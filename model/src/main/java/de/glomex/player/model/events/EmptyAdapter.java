@@ -0,0 +1,15 @@
+package de.glomex.player.model.events;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks listener adapter with no-op methods: methods declared there aren't dispatched to subclasses,
+ * only the ones subclass overrides (see {@link SubscribeManager#registerListener}).
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EmptyAdapter {
+}
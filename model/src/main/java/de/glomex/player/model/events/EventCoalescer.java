@@ -0,0 +1,122 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.model.api.ExecutionManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Merges high-frequency playback events raised within a window:
+ *  - only the latest onSeek is dispatched
+ *  - onPlay/onPause toggles collapse to the last state, and are dropped if state didn't change since last dispatch
+ *
+ * Pending events are dispatched when window closes, or before any other playback event, so order is kept:
+ * merged seek and play/pause are dispatched in order of their latest arrival.
+ * If the executor is shut down, events are dispatched right away.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventCoalescer {
+
+    private final @NotNull PlaybackDispatcher dispatcher;
+    private final @NotNull ExecutionManager executor;
+    private final long windowNanos;
+
+    private final Object lock = new Object();
+    private boolean seekPending;
+    private long position;
+    private @Nullable Boolean playPending;
+    private @Nullable Boolean playDispatched;
+    private boolean seekLast; // of pending events
+    private boolean scheduled;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    EventCoalescer(@NotNull PlaybackDispatcher dispatcher, @NotNull ExecutionManager executor, long window, @NotNull TimeUnit unit) {
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    void seek(long position) {
+        received.increment();
+        synchronized (lock) {
+            if (seekPending)
+                coalesced.increment();
+            seekPending = true;
+            seekLast = true;
+            this.position = position;
+            schedule();
+        }
+    }
+
+    void play(boolean playing) {
+        received.increment();
+        synchronized (lock) {
+            if (playPending != null)
+                coalesced.increment();
+            playPending = playing;
+            seekLast = false;
+            schedule();
+        }
+    }
+
+    // outer synchronization required
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            try {
+                executor.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException shutdown) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Dispatches pending events, if any
+     */
+    void flush() {
+        Boolean play;
+        boolean seek;
+        long position;
+        synchronized (lock) {
+            scheduled = false;
+            play = playPending;
+            seek = seekPending;
+            position = this.position;
+            playPending = null;
+            seekPending = false;
+            if (play != null) {
+                if (play.equals(playDispatched)) {
+                    coalesced.increment();
+                    play = null;
+                } else
+                    playDispatched = play;
+            }
+            // dispatch under the lock, so concurrent flushes don't reorder events
+            if (seek && !seekLast)
+                dispatcher.raiseSeek(position);
+            if (play != null)
+                if (play)
+                    dispatcher.raisePlay();
+                else
+                    dispatcher.raisePause();
+            if (seek && seekLast)
+                dispatcher.raiseSeek(position);
+        }
+    }
+
+    public long received() {
+        return received.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+}
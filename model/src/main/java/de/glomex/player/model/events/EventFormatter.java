@@ -0,0 +1,45 @@
+package de.glomex.player.model.events;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Renders events as "Type.method(arg, arg)".
+ * Text is built in per-thread reusable buffer, so the only allocation is the resulting string.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventFormatter {
+
+    private static final int MAX_POOLED_CAPACITY = 1024;
+
+    private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    public static @NotNull String format(@NotNull EventRecord event) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        formatTo(event, buffer);
+        String result = buffer.toString();
+        // don't keep huge buffer after some exotic message
+        if (buffer.capacity() > MAX_POOLED_CAPACITY)
+            buffers.remove();
+        return result;
+    }
+
+    public static void formatTo(@NotNull EventRecord event, @NotNull StringBuilder target) {
+        EventKind kind = event.kind();
+        target
+            .append(kind.type().getSimpleName())
+            .append('.')
+            .append(kind.name())
+            .append('(');
+        if (kind.valued())
+            target.append(event.value());
+        else if (event.first() != null) {
+            target.append(event.first());
+            if (event.second() != null)
+                target.append(", ").append(event.second());
+        }
+        target.append(')');
+    }
+
+}
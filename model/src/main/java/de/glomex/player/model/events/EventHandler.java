@@ -5,19 +5,22 @@ import de.glomex.player.api.etc.ShutdownListener;
 import de.glomex.player.api.lifecycle.LifecycleListener;
 import de.glomex.player.api.playback.PlaybackListener;
 import de.glomex.player.api.playlist.PlaylistListener;
+import de.glomex.player.model.InternalTag;
 import de.glomex.player.model.api.ExecutionManager;
 import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.api.Priority;
+import de.glomex.player.model.journal.EventJournal;
+import de.glomex.player.model.journal.JournalReplay;
 import de.glomex.player.model.player.PlayerListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.StringJoiner;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,21 +28,28 @@ import java.util.logging.Logger;
  * This class dispatches event to underlying systems:
  *  - tracking
  *  - api callbacks
+ *  - api publishers
  *  - loggers
+ *  - journal
  *
  * This class contract is to:
  *   1) populate events with data from content registry (which absent in event itself but needed for reporting)
  *   2) transform events into proper format
  *   3) call underlying components
  *
- * There are could be several loggers, each will be notified.
- * Loggers will have event already transformed to string representation.
+ * There are could be several loggers, each will be notified from background thread, in batches (see {@link AsyncEventLogger}).
+ * Events are captured as {@link EventRecord}s, and are rendered to text only when a logger asks for it.
  *
  * Listeners will be notified asynchronously, with non-blocking approach.
  * Code won't wait listeners' answer to notify the next one.
- * Errors in callbacks are ignored. // improve: such listener could be marked as bad and turned off
+ * Each listener receives callbacks in the order events were raised (see {@link MailboxScheduler}).
+ * Internal listeners are notified with control priority, 3rd party ones with callbacks priority (see {@link Priority}).
+ * Errors and execution time of callbacks are accounted per listener; external listeners which throw
+ * or block too long are treated according to {@link ListenerPolicy}: reported, detached or isolated.
  * Results are not returned.
  *
+ * Every listener type has its own hand-written {@link Dispatcher}, returned by {@link #listener(Class)}.
+ *
  * FIXME: this mock implementation mixes all sub-handlers all together...
  *
  * Created by <b>me@olexxa.com</b>
@@ -48,6 +58,13 @@ public class EventHandler {
 
     private static final Logger log = Logging.getLogger(EventHandler.class);
 
+    // concurrent mailbox drains, keeps executor threads for the rest of the tasks
+    private static final int MAX_DRAINERS = 3;
+    // calls delivered to one listener before switching to another one
+    private static final int DRAIN_BATCH = 16;
+    // concurrent drains of isolated listeners
+    private static final int SLOW_LANE_THREADS = 2;
+
     static final Class[] types = new Class[] {
         PlaylistListener.class,
         LifecycleListener.class,
@@ -62,9 +79,18 @@ public class EventHandler {
     private final SubscribeManager subscribeManager;
     private final ExecutionManager executor;
 
-    private final List<EventLogger> loggers = new ArrayList<>();
-    private final ListenerTag proxyListener;
+    private final AsyncEventLogger loggers;
+    private final Map<Class<? extends ListenerTag>, Dispatcher<?>> dispatchers = new HashMap<>();
     private final EventTracker eventTracker;
+    private final MailboxScheduler controlMailboxes;
+    private final MailboxScheduler mailboxes;
+    private final EventStreams streams;
+
+    private volatile @NotNull ListenerPolicy policy = ListenerPolicy.defaults;
+    private volatile @Nullable EventCoalescer coalescer;
+    private volatile @Nullable EventJournal journal;
+    private ExecutorService slowLaneExecutor;
+    private MailboxScheduler slowLane;
 
     public EventHandler(
         @NotNull SubscribeManager subscribeManager,
@@ -73,17 +99,66 @@ public class EventHandler {
         this.subscribeManager = subscribeManager;
         this.executor = executor;
 
-        eventTracker = new EventTracker();
+        // shared workers: loggers are drained by the player's tasks, not by own thread
+        loggers = executor.isShared()
+            ? new AsyncEventLogger(executor.lane(Priority.callbacks), AsyncEventLogger.DEFAULT_CAPACITY, AsyncEventLogger.DEFAULT_BATCH, AsyncEventLogger.LoggerOverflow.drop)
+            : new AsyncEventLogger();
+        eventTracker = new EventTracker(executor);
+        // internal listeners drive the player, so they go first
+        controlMailboxes = new MailboxScheduler(executor.lane(Priority.control), this::completed, MAX_DRAINERS, DRAIN_BATCH);
+        mailboxes = new MailboxScheduler(executor.lane(Priority.callbacks), this::completed, MAX_DRAINERS, DRAIN_BATCH);
+        streams = subscribeManager.streams();
+        streams.bind(executor.lane(Priority.callbacks));
+
+        register(new PlaylistDispatcher(this));
+        register(new LifecycleDispatcher(this));
+        register(new PlaybackDispatcher(this));
+        register(new PlayerDispatcher(this));
+        register(new ShutdownDispatcher(this));
+    }
 
-        proxyListener = (ListenerTag) Proxy.newProxyInstance(
-            Thread.currentThread().getContextClassLoader(),
-            types,
-            this::invocationHandler
-        );
+    private void register(@NotNull Dispatcher<?> dispatcher) {
+        dispatchers.put(dispatcher.type(), dispatcher);
     }
 
     public void addLogger(@NotNull EventLogger logger) {
-        loggers.add(logger);
+        loggers.addLogger(logger);
+    }
+
+    public @NotNull EventTracker tracker() {
+        return eventTracker;
+    }
+
+    public @NotNull AsyncEventLogger loggers() {
+        return loggers;
+    }
+
+    public void listenerPolicy(@NotNull ListenerPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Opt-in: merges superseded seek and play/pause events raised within the window, see {@link EventCoalescer}.
+     * Zero window turns coalescing off.
+     */
+    public void coalesce(long window, @NotNull TimeUnit unit) {
+        EventCoalescer previous = coalescer;
+        coalescer = window > 0? new EventCoalescer((PlaybackDispatcher) playbackListener(), executor, window, unit) : null;
+        if (previous != null)
+            previous.flush();
+    }
+
+    public @Nullable EventCoalescer coalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Records every event into binary journal, see {@link EventJournal}, {@link JournalReplay}.
+     */
+    public synchronized void startJournal(@NotNull EventJournal journal) {
+        if (this.journal != null)
+            this.journal.close();
+        this.journal = journal;
     }
 
     public @NotNull PlaylistListener playlistListener() {
@@ -109,63 +184,118 @@ public class EventHandler {
     @SuppressWarnings("unchecked")
     public @NotNull <L extends ListenerTag> L listener(@NotNull Class<L> type) {
         // should be assert - this is internal development error
-        if (listenerTypes.contains(type))
-            return (L) proxyListener;
+        Dispatcher<?> dispatcher = dispatchers.get(type);
+        if (dispatcher != null)
+            return (L) dispatcher;
         throw new IllegalStateException("Listener type " + type.getName() + " isn't supported");
     }
 
-    private @Nullable Object invocationHandler(@NotNull Object proxy, @NotNull Method method, @Nullable Object[] args) {
-        // improve: do we need to block this until everything is completed?...
-        log.logp(Level.FINER, method.getDeclaringClass().getSimpleName(), method.getName(), "", Arrays.toString(args));
-        String message = createLogMessage(method, args);
-        // Loggers, synchronous
-        for (EventLogger logger: loggers)
-            logger.logEvent(message);
-
-        // Callbacks
-        @SuppressWarnings("unchecked")
-        Class<? extends ListenerTag> type = (Class<? extends ListenerTag>) method.getDeclaringClass();
-        for (ListenerTag listener: subscribeManager.internals(type))
-            proceed(listener, method, args);
-
-        for (ListenerTag listener: subscribeManager.externals(type))
-            proceed(listener, method, args);
-
-        // Tracker
-        executor.execute(() -> eventTracker.trackEvent(message));
-
-        return null;
-    }
-
-    // todo: it's assumed that all listeners' methods return no value
-    private void proceed(@NotNull ListenerTag listener, @NotNull Method method, @Nullable  Object[] args) {
-        executor.execute(() -> {
-            try {
-                method.invoke(listener, args);
-            } catch (IllegalAccessException error) {
-                // mustn't happens
-                log.severe("Development mistake " + error.getMessage());
-            } catch (InvocationTargetException error) {
-                log.warning("Exception calling listener " + error.getMessage());
-                throw new RuntimeException(error.getTargetException());
-            }
-        });
-    }
-
-    private String createLogMessage(@NotNull Method method, @Nullable Object[] args) {
-        StringBuilder message = new StringBuilder();
-        message
-            .append(method.getDeclaringClass().getSimpleName())
-            .append(".")
-            .append(method.getName());
-        if (args != null) {
-            StringJoiner joiner = new StringJoiner(", ", "(", ")");
-            for (Object arg: args)
-                joiner.add(arg.toString());
-            message.append(joiner.toString());
-        } else
-            message.append("()");
-        return message.toString();
+    // improve: do we need to block this until everything is completed?...
+    // record is created only if somebody consumes it; text is rendered only if somebody asks for it
+    void event(@NotNull EventKind kind, @Nullable Object first, @Nullable Object second, long value) {
+        long timestamp = System.currentTimeMillis();
+        EventJournal journal = this.journal;
+        if (journal != null)
+            journal.append(kind, timestamp, first, second, value);
+
+        boolean traced = log.isLoggable(Level.FINER);
+        boolean tracked = eventTracker.enabled();
+        boolean published = streams.active();
+        if (!traced && !tracked && !published && loggers.isEmpty())
+            return;
+
+        EventRecord event = new EventRecord(kind, timestamp, first, second, value);
+        if (traced)
+            log.logp(Level.FINER, kind.type().getSimpleName(), kind.name(), event.toString());
+
+        // Loggers, asynchronous and batched
+        loggers.logEvent(event);
+
+        // Tracker, just buffers event
+        if (tracked)
+            eventTracker.trackEvent(event);
+
+        // Publishers, buffered per subscriber until requested
+        if (published)
+            streams.publish(event);
+    }
+
+    // Callbacks
+    // only listeners handling the callback are posted to
+    <L extends ListenerTag> void fanOut(@NotNull EventKind kind, @NotNull Consumer<L> call) {
+        for (Mailbox mailbox: subscribeManager.internals(kind))
+            controlMailboxes.post(mailbox, call);
+
+        for (Mailbox mailbox: subscribeManager.externals(kind))
+            post(mailbox, call);
+    }
+
+    // internal listeners are never isolated, so never change lane
+    private void post(@NotNull Mailbox mailbox, @NotNull Consumer<?> call) {
+        MailboxScheduler lane = mailbox.lane();
+        (lane != null? lane : mailboxes).post(mailbox, call);
+    }
+
+    private void completed(@NotNull Mailbox mailbox, long nanos, @Nullable RuntimeException error) {
+        ListenerPolicy policy = this.policy;
+        boolean slow = nanos > policy.slowNanos;
+        ListenerStats stats = mailbox.stats();
+        stats.record(nanos, error != null, slow);
+        if (error != null) {
+            log.warning("Exception calling listener " + error.getMessage());
+            if (stats.errors() == policy.maxErrors)
+                misbehaves(mailbox, policy.onErrors, stats.errors() + " errors");
+        }
+        if (slow)
+            misbehaves(mailbox, policy.onSlow, "callback took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+    }
+
+    private void misbehaves(@NotNull Mailbox mailbox, @NotNull ListenerPolicy.Action action, @NotNull String reason) {
+        ListenerTag listener = mailbox.listener();
+        if (listener instanceof InternalTag)
+            action = ListenerPolicy.Action.warn;
+        switch (action) {
+            case warn:
+                log.warning("Listener " + listener + " misbehaves: " + reason);
+                break;
+            case detach:
+                log.warning("Listener " + listener + " is detached: " + reason);
+                subscribeManager.unregisterListener(listener);
+                mailbox.clear();
+                break;
+            case isolate:
+                if (mailbox.lane() == null) {
+                    log.warning("Listener " + listener + " is moved to slow lane: " + reason);
+                    mailbox.lane(slowLane());
+                }
+                break;
+        }
+    }
+
+    // shared workers: slow listeners are isolated by the drainers limit only, threads aren't added per player
+    private synchronized @NotNull MailboxScheduler slowLane() {
+        if (slowLane == null) {
+            Executor lane;
+            if (executor.isShared())
+                lane = executor.lane(Priority.callbacks);
+            else
+                lane = slowLaneExecutor = Executors.newFixedThreadPool(SLOW_LANE_THREADS, task -> {
+                    Thread thread = new Thread(task, "glomex-slow-listeners");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            slowLane = new MailboxScheduler(lane, this::completed, SLOW_LANE_THREADS, DRAIN_BATCH);
+        }
+        return slowLane;
+    }
+
+    public synchronized void shutdown() {
+        if (journal != null)
+            journal.close();
+        eventTracker.shutdown();
+        loggers.shutdown();
+        if (slowLaneExecutor != null)
+            slowLaneExecutor.shutdownNow();
     }
 
 }
@@ -0,0 +1,80 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import de.glomex.player.api.etc.ShutdownListener;
+import de.glomex.player.api.lifecycle.LifecycleListener;
+import de.glomex.player.api.playback.PlaybackListener;
+import de.glomex.player.api.playlist.PlaylistListener;
+import de.glomex.player.model.player.PlayerListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Every listener method, which can be raised as an event.
+ * Constant names are the same as names of the methods.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public enum EventKind {
+
+    onChanged(PlaylistListener.class),
+    onNext(PlaylistListener.class),
+    onPlaylistFinished(PlaylistListener.class),
+
+    onContentResolved(LifecycleListener.class),
+    onContentError(LifecycleListener.class),
+    onAdsResolved(LifecycleListener.class),
+    onAdsError(LifecycleListener.class),
+    onContentStarted(LifecycleListener.class),
+    onContentCompleted(LifecycleListener.class),
+    onAdStarted(LifecycleListener.class),
+    onAdCompleted(LifecycleListener.class),
+    onLifecycleStarted(LifecycleListener.class),
+    onLifecycleCompleted(LifecycleListener.class),
+    onLifecycleError(LifecycleListener.class),
+
+    onReady(PlaybackListener.class),
+    onPlay(PlaybackListener.class),
+    onPause(PlaybackListener.class),
+    onSeek(PlaybackListener.class, true),
+    onError(PlaybackListener.class),
+    onFinished(PlaybackListener.class),
+
+    onCreated(PlayerListener.class),
+    onActivated(PlayerListener.class),
+
+    onShutdown(ShutdownListener.class);
+
+    private static final EventKind[] values = values();
+
+    private final @NotNull Class<? extends ListenerTag> type;
+    private final boolean valued;
+
+    EventKind(@NotNull Class<? extends ListenerTag> type) {
+        this(type, false);
+    }
+
+    EventKind(@NotNull Class<? extends ListenerTag> type, boolean valued) {
+        this.type = type;
+        this.valued = valued;
+    }
+
+    public @NotNull Class<? extends ListenerTag> type() {
+        return type;
+    }
+
+    /**
+     * True if the only argument is primitive long
+     */
+    public boolean valued() {
+        return valued;
+    }
+
+    public int id() {
+        return ordinal();
+    }
+
+    public static @NotNull EventKind of(int id) {
+        return values[id];
+    }
+
+}
@@ -10,4 +10,11 @@ public interface EventLogger extends ListenerTag {
 
     void logEvent(@NotNull String event);
 
+    /**
+     * Override to consume structured event without rendering it.
+     */
+    default void logEvent(@NotNull EventRecord event) {
+        logEvent(event.toString());
+    }
+
 }
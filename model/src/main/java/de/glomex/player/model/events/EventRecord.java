@@ -0,0 +1,92 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import de.glomex.player.api.events.PlayerEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact structured representation of an event.
+ * Arguments are kept as is, text is rendered only if someone asks for it (and then cached).
+ *
+ * Listener methods have either up to two object arguments, or the only long one.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventRecord implements PlayerEvent {
+
+    private final @NotNull EventKind kind;
+    private final long timestamp;
+    private final @Nullable Object first;
+    private final @Nullable Object second;
+    private final long value;
+
+    private String text;
+
+    EventRecord(@NotNull EventKind kind, long timestamp, @Nullable Object first, @Nullable Object second, long value) {
+        this.kind = kind;
+        this.timestamp = timestamp;
+        this.first = first;
+        this.second = second;
+        this.value = value;
+    }
+
+    public @NotNull EventKind kind() {
+        return kind;
+    }
+
+    @Override
+    public @NotNull Class<? extends ListenerTag> type() {
+        return kind.type();
+    }
+
+    @Override
+    public @NotNull String name() {
+        return kind.name();
+    }
+
+    /**
+     * Milliseconds since epoch
+     */
+    @Override
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public @Nullable Object first() {
+        return first;
+    }
+
+    public @Nullable Object second() {
+        return second;
+    }
+
+    /**
+     * Primitive argument, meaningful for {@link EventKind#valued()} events only (e.g. position of onSeek)
+     */
+    public long value() {
+        return value;
+    }
+
+    @Override
+    public @NotNull List<Object> arguments() {
+        if (kind.valued())
+            return Collections.singletonList(value);
+        if (first == null)
+            return Collections.emptyList();
+        return second == null? Collections.singletonList(first) : Arrays.asList(first, second);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        // benign race: at worst text is rendered twice
+        if (text == null)
+            text = EventFormatter.format(this);
+        return text;
+    }
+
+}
@@ -0,0 +1,103 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import de.glomex.player.api.events.Flow;
+import de.glomex.player.api.events.Overflow;
+import de.glomex.player.api.events.PlayerEvent;
+import de.glomex.player.model.player.PlayerListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Publishers of events, pulled by subscribers (see {@link EventSubscription}).
+ * Same as listeners' snapshot, subscriptions are published as immutable array, so publishing is lock free.
+ *
+ * Events are delivered on the executor of the event handler, bound on its creation.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+class EventStreams {
+
+    private static final EventSubscription[] none = new EventSubscription[0];
+
+    private final Object lock = new Object();
+    private volatile EventSubscription[] subscriptions = none;
+    private volatile @Nullable Executor executor;
+    private boolean completed;
+
+    void bind(@NotNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param type null - all public types
+     */
+    @NotNull Flow.Publisher<PlayerEvent> publisher(@Nullable Class<? extends ListenerTag> type, int capacity, @NotNull Overflow overflow) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+        if (type != null && !EventHandler.listenerTypes.contains(type))
+            throw new IllegalArgumentException("Listener type " + type.getName() + " isn't supported");
+        return subscriber -> subscribe(new EventSubscription(this, subscriber, type, capacity, overflow));
+    }
+
+    private void subscribe(@NotNull EventSubscription subscription) {
+        synchronized (lock) {
+            if (!completed) {
+                EventSubscription[] current = subscriptions;
+                EventSubscription[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = subscription;
+                subscriptions = updated;
+            }
+        }
+        subscription.start();
+        if (completed)
+            subscription.complete();
+    }
+
+    void remove(@NotNull EventSubscription subscription) {
+        synchronized (lock) {
+            EventSubscription[] current = subscriptions;
+            for (int i = 0; i < current.length; i++)
+                if (current[i] == subscription) {
+                    EventSubscription[] updated = new EventSubscription[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    subscriptions = updated;
+                    return;
+                }
+        }
+    }
+
+    boolean active() {
+        return subscriptions.length > 0;
+    }
+
+    void publish(@NotNull EventRecord event) {
+        Class<? extends ListenerTag> type = event.kind().type();
+        for (EventSubscription subscription: subscriptions) {
+            Class<? extends ListenerTag> filter = subscription.type();
+            // player events are internal: delivered only if asked for explicitly
+            if (filter == type || filter == null && type != PlayerListener.class)
+                subscription.offer(event);
+        }
+    }
+
+    @Nullable Executor executor() {
+        return executor;
+    }
+
+    void complete() {
+        EventSubscription[] current;
+        synchronized (lock) {
+            completed = true;
+            current = subscriptions;
+            subscriptions = none;
+        }
+        for (EventSubscription subscription: current)
+            subscription.complete();
+    }
+
+}
@@ -0,0 +1,185 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import de.glomex.player.api.events.Flow;
+import de.glomex.player.api.events.Overflow;
+import de.glomex.player.api.events.PlayerEvent;
+import de.glomex.player.model.api.Logging;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded buffer of events for one subscriber, delivered as demanded.
+ * Signals to the subscriber are serialized: only one drain runs at a time, the same way as {@link Mailbox}.
+ * Events beyond capacity are handled according to {@link Overflow}, so slow subscriber costs at most capacity events.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+class EventSubscription implements Flow.Subscription {
+
+    private static final Logger log = Logging.getLogger(EventSubscription.class);
+
+    private final @NotNull EventStreams streams;
+    private final @NotNull Flow.Subscriber<? super PlayerEvent> subscriber;
+    private final @Nullable Class<? extends ListenerTag> type;
+    private final int capacity;
+    private final @NotNull Overflow overflow;
+
+    // guarded by itself
+    private final ArrayDeque<EventRecord> buffer;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private volatile @Nullable Throwable failure;
+
+    EventSubscription(
+        @NotNull EventStreams streams, @NotNull Flow.Subscriber<? super PlayerEvent> subscriber,
+        @Nullable Class<? extends ListenerTag> type, int capacity, @NotNull Overflow overflow
+    ) {
+        this.streams = streams;
+        this.subscriber = subscriber;
+        this.type = type;
+        this.capacity = capacity;
+        this.overflow = overflow;
+        buffer = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    @Nullable Class<? extends ListenerTag> type() {
+        return type;
+    }
+
+    void start() {
+        try {
+            subscriber.onSubscribe(this);
+        } catch (RuntimeException error) {
+            log.warning("Exception subscribing " + subscriber + ": " + error.getMessage());
+            cancel();
+        }
+    }
+
+    /**
+     * Called on emitting thread, never blocks.
+     */
+    void offer(@NotNull EventRecord event) {
+        if (cancelled)
+            return;
+        synchronized (buffer) {
+            if (buffer.size() >= capacity)
+                switch (overflow) {
+                    case drop_oldest:
+                        buffer.poll();
+                        dropped.increment();
+                        break;
+                    case drop_latest:
+                        dropped.increment();
+                        return;
+                    case fail:
+                        failure = new IllegalStateException("Subscriber is too slow, " + capacity + " events buffered");
+                        buffer.clear();
+                        streams.remove(this);
+                        schedule();
+                        return;
+                }
+            buffer.offer(event);
+        }
+        schedule();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            failure = new IllegalArgumentException("Requested " + n + " events, should be positive");
+            streams.remove(this);
+        } else
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0? Long.MAX_VALUE : current + added);
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        streams.remove(this);
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    void complete() {
+        completed = true;
+        schedule();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    private void schedule() {
+        if (work.getAndIncrement() != 0)
+            return; // running drain will pick it up
+        Executor executor = streams.executor();
+        try {
+            if (executor == null)
+                throw new RejectedExecutionException("Event handler isn't bound");
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException rejected) {
+            // shutting down: final signals are delivered on the calling thread
+            drain();
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (!cancelled)
+                deliver();
+            missed = work.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver() {
+        try {
+            Throwable failure = this.failure;
+            if (failure != null) {
+                cancelled = true;
+                subscriber.onError(failure);
+                return;
+            }
+            while (demand.get() > 0 && !cancelled) {
+                EventRecord event;
+                synchronized (buffer) {
+                    event = buffer.poll();
+                }
+                if (event == null)
+                    break;
+                subscriber.onNext(event);
+                if (demand.get() != Long.MAX_VALUE)
+                    demand.decrementAndGet();
+            }
+            if (completed && !cancelled && isEmpty()) {
+                cancelled = true;
+                subscriber.onComplete();
+            }
+        } catch (RuntimeException error) {
+            log.warning("Exception calling subscriber " + subscriber + ", cancelled: " + error.getMessage());
+            cancel();
+        }
+    }
+
+    private boolean isEmpty() {
+        synchronized (buffer) {
+            return buffer.isEmpty();
+        }
+    }
+
+}
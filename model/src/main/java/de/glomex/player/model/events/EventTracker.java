@@ -1,20 +1,295 @@
 package de.glomex.player.model.events;
 
+import de.glomex.player.model.api.ExecutionManager;
 import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.api.Priority;
+import de.glomex.player.model.tracking.TrackingSink;
+import de.glomex.player.model.tracking.TrackingSpool;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
+ * Collects events in memory and sends them to tracking sink in batches:
+ * when batch is full or flush interval elapsed, whichever comes first.
+ *
+ * Batches, which couldn't be sent (sink is down), or which are about to overflow memory buffer (sink is slow),
+ * are written to spool file; spool is replayed as soon as sink is back, including spool left from previous run.
+ * Failed replay backs off: delay doubles from flush interval up to {@link #MAX_REPLAY_BACKOFF}.
+ * Memory buffer is bounded: events tracked while it is full are dropped.
+ *
+ * Tracking is disabled until sink is set.
+ * Flushes run with telemetry priority: under load they are deferred or shed, events stay buffered till the next one.
+ *
  * Created by <b>me@olexxa.com</b>
  */
 public class EventTracker {
 
     private static final Logger log = Logging.getLogger(EventTracker.class);
 
-    public void trackEvent(@NotNull String message) {
-        // fixme: implement tracking
-        // log.fine(message);
+    public static final int DEFAULT_BATCH = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+    public static final int DEFAULT_MAX_BUFFERED = 10_000;
+    public static final long MAX_REPLAY_BACKOFF = TimeUnit.MINUTES.toMillis(1);
+
+    private final @NotNull ExecutionManager executor;
+
+    private final Object lock = new Object();
+    private List<EventRecord> buffer = new ArrayList<>();
+
+    private volatile @Nullable TrackingSink sink;
+    private @Nullable TrackingSpool spool;
+    private @Nullable ScheduledFuture<?> timer;
+    private int batch = DEFAULT_BATCH;
+    private int maxBuffered = DEFAULT_MAX_BUFFERED;
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean sinkDown;
+    // replay backoff, touched by flush only
+    private long replayDelay;
+    private long nextReplay;
+
+    private final LongAdder tracked = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder spooled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public EventTracker(@NotNull ExecutionManager executor) {
+        this.executor = executor;
+    }
+
+    public void start(@NotNull TrackingSink sink, @Nullable TrackingSpool spool) {
+        start(sink, spool, DEFAULT_BATCH, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_BUFFERED);
+    }
+
+    public synchronized void start(
+        @NotNull TrackingSink sink, @Nullable TrackingSpool spool,
+        int batch, long flushIntervalMillis, int maxBuffered
+    ) {
+        if (timer != null)
+            timer.cancel(false);
+        this.spool = spool;
+        this.batch = batch;
+        this.maxBuffered = maxBuffered;
+        this.flushInterval = flushIntervalMillis;
+        this.sink = sink;
+        // flushes by time and replays spool, left from previous run as well
+        timer = executor.scheduleWithFixedDelay(Priority.telemetry, this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (spool != null && !spool.isEmpty())
+            flushLater();
+    }
+
+    public boolean enabled() {
+        return sink != null;
+    }
+
+    /**
+     * Cheap, called on emitting thread: serialization and I/O happen on flush.
+     */
+    public void trackEvent(@NotNull EventRecord event) {
+        boolean accepted;
+        int size;
+        synchronized (lock) {
+            accepted = buffer.size() < maxBuffered;
+            if (accepted)
+                buffer.add(event);
+            size = buffer.size();
+        }
+        tracked.increment();
+        if (!accepted)
+            dropped.increment();
+        // buffer may stay above batch, while flush in progress sends it
+        if (size >= batch && flushQueued.compareAndSet(false, true))
+            flushLater();
+    }
+
+    // telemetry lane is full or shut down: the timer flushes, while it runs
+    private void flushLater() {
+        try {
+            executor.execute(Priority.telemetry, this::flush);
+        } catch (RejectedExecutionException shed) {
+            flushQueued.set(false);
+            log.fine("Tracking flush deferred: " + shed.getMessage());
+        }
+    }
+
+    private void flush() {
+        flushQueued.set(false);
+        TrackingSink sink = this.sink;
+        if (sink == null || !flushing.compareAndSet(false, true))
+            return; // flush in progress will pick up the events
+        try {
+            sinkDown = false;
+            replay(sink);
+            List<EventRecord> events;
+            while (!(events = take()).isEmpty()) {
+                List<String> lines = encode(events);
+                // sink doesn't keep up: buffer is about to overflow
+                if (sinkDown || pending() >= maxBuffered - batch)
+                    spool(lines);
+                else
+                    send(sink, lines);
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private @NotNull List<EventRecord> take() {
+        synchronized (lock) {
+            if (buffer.size() <= batch) {
+                List<EventRecord> all = buffer;
+                buffer = new ArrayList<>();
+                return all;
+            }
+            List<EventRecord> head = buffer.subList(0, batch);
+            List<EventRecord> events = new ArrayList<>(head);
+            head.clear();
+            return events;
+        }
+    }
+
+    private int pending() {
+        synchronized (lock) {
+            return buffer.size();
+        }
+    }
+
+    private void send(@NotNull TrackingSink sink, @NotNull List<String> lines) {
+        try {
+            sink.send(lines);
+            sent.add(lines.size());
+        } catch (IOException | RuntimeException error) {
+            log.warning("Tracking sink failed, spooling: " + error.getMessage());
+            sinkDown = true;
+            spool(lines);
+        }
+    }
+
+    private void replay(@NotNull TrackingSink sink) {
+        TrackingSpool spool = this.spool;
+        if (spool == null || spool.isEmpty())
+            return;
+        long now = System.nanoTime();
+        if (replayDelay > 0 && now - nextReplay < 0) {
+            // new events go after the spool, not before it
+            sinkDown = true;
+            return;
+        }
+        try {
+            int replayed = spool.replay(sink, batch);
+            sent.add(replayed);
+            replayDelay = 0;
+            log.fine("Replayed " + replayed + " tracking events");
+        } catch (IOException | RuntimeException error) {
+            // every failed replay requeues the spool: don't do it on every flush
+            replayDelay = replayDelay == 0? flushInterval : Math.min(replayDelay * 2, MAX_REPLAY_BACKOFF);
+            nextReplay = now + TimeUnit.MILLISECONDS.toNanos(replayDelay);
+            log.fine("Tracking sink is still down, next replay in " + replayDelay + "ms: " + error.getMessage());
+            sinkDown = true;
+        }
+    }
+
+    private void spool(@NotNull List<String> lines) {
+        TrackingSpool spool = this.spool;
+        if (spool != null)
+            try {
+                spool.append(lines);
+                spooled.add(lines.size());
+                return;
+            } catch (IOException error) {
+                log.severe("Error writing tracking spool: " + error.getMessage());
+            }
+        dropped.add(lines.size());
+    }
+
+    /**
+     * Pending events are spooled, not sent: shutdown shouldn't wait for the sink.
+     */
+    public synchronized void shutdown() {
+        if (timer != null)
+            timer.cancel(false);
+        if (sink == null)
+            return;
+        sink = null;
+        List<EventRecord> events;
+        while (!(events = take()).isEmpty())
+            spool(encode(events));
+    }
+
+    public long tracked() {
+        return tracked.sum();
+    }
+
+    public long sent() {
+        return sent.sum();
+    }
+
+    public long spooled() {
+        return spooled.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private static @NotNull List<String> encode(@NotNull List<EventRecord> events) {
+        List<String> lines = new ArrayList<>(events.size());
+        StringBuilder line = new StringBuilder(128);
+        for (EventRecord event: events) {
+            line.setLength(0);
+            encode(event, line);
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    // {"time":1,"type":"PlaybackListener","event":"onSeek","args":["42"]}
+    private static void encode(@NotNull EventRecord event, @NotNull StringBuilder json) {
+        EventKind kind = event.kind();
+        json.append("{\"time\":").append(event.timestamp())
+            .append(",\"type\":\"").append(kind.type().getSimpleName())
+            .append("\",\"event\":\"").append(kind.name())
+            .append("\",\"args\":[");
+        if (kind.valued())
+            json.append(event.value());
+        else if (event.first() != null) {
+            quote(String.valueOf(event.first()), json);
+            if (event.second() != null)
+                quote(String.valueOf(event.second()), json.append(','));
+        }
+        json.append("]}");
+    }
+
+    private static void quote(@NotNull String value, @NotNull StringBuilder json) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':  json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                        json.append(String.format("\\u%04x", (int) c));
+                    else
+                        json.append(c);
+            }
+        }
+        json.append('"');
     }
 
 }
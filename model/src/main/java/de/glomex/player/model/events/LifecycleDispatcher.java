@@ -0,0 +1,82 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.lifecycle.LifecycleListener;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+class LifecycleDispatcher extends Dispatcher<LifecycleListener> implements LifecycleListener {
+
+    LifecycleDispatcher(@NotNull EventHandler handler) {
+        super(handler, LifecycleListener.class);
+    }
+
+    @Override
+    public void onContentResolved(@NotNull MediaID mediaID) {
+        event(EventKind.onContentResolved, mediaID);
+        fanOut(EventKind.onContentResolved, listener -> listener.onContentResolved(mediaID));
+    }
+
+    @Override
+    public void onContentError(@NotNull MediaID mediaID, @NotNull String message) {
+        event(EventKind.onContentError, mediaID, message);
+        fanOut(EventKind.onContentError, listener -> listener.onContentError(mediaID, message));
+    }
+
+    @Override
+    public void onAdsResolved(@NotNull MediaID mediaID) {
+        event(EventKind.onAdsResolved, mediaID);
+        fanOut(EventKind.onAdsResolved, listener -> listener.onAdsResolved(mediaID));
+    }
+
+    @Override
+    public void onAdsError(@NotNull MediaID mediaID, @NotNull String message) {
+        event(EventKind.onAdsError, mediaID, message);
+        fanOut(EventKind.onAdsError, listener -> listener.onAdsError(mediaID, message));
+    }
+
+    @Override
+    public void onContentStarted(@NotNull MediaID mediaID) {
+        event(EventKind.onContentStarted, mediaID);
+        fanOut(EventKind.onContentStarted, listener -> listener.onContentStarted(mediaID));
+    }
+
+    @Override
+    public void onContentCompleted(@NotNull MediaID mediaID) {
+        event(EventKind.onContentCompleted, mediaID);
+        fanOut(EventKind.onContentCompleted, listener -> listener.onContentCompleted(mediaID));
+    }
+
+    @Override
+    public void onAdStarted(@NotNull MediaID adID) {
+        event(EventKind.onAdStarted, adID);
+        fanOut(EventKind.onAdStarted, listener -> listener.onAdStarted(adID));
+    }
+
+    @Override
+    public void onAdCompleted(@NotNull MediaID adID) {
+        event(EventKind.onAdCompleted, adID);
+        fanOut(EventKind.onAdCompleted, listener -> listener.onAdCompleted(adID));
+    }
+
+    @Override
+    public void onLifecycleStarted(@NotNull MediaID mediaID) {
+        event(EventKind.onLifecycleStarted, mediaID);
+        fanOut(EventKind.onLifecycleStarted, listener -> listener.onLifecycleStarted(mediaID));
+    }
+
+    @Override
+    public void onLifecycleCompleted(@NotNull MediaID mediaID) {
+        event(EventKind.onLifecycleCompleted, mediaID);
+        fanOut(EventKind.onLifecycleCompleted, listener -> listener.onLifecycleCompleted(mediaID));
+    }
+
+    @Override
+    public void onLifecycleError(@NotNull MediaID mediaID, @NotNull String message) {
+        event(EventKind.onLifecycleError, mediaID, message);
+        fanOut(EventKind.onLifecycleError, listener -> listener.onLifecycleError(mediaID, message));
+    }
+
+}
@@ -0,0 +1,42 @@
+package de.glomex.player.model.events;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defines how misbehaving listeners are treated.
+ * Applied to external listeners only: internal ones are part of the player and just reported.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ListenerPolicy {
+
+    public enum Action {
+        /** Log warning, keep listener as is */
+        warn,
+        /** Unregister listener, dropping calls pending for it */
+        detach,
+        /** Deliver further calls to the listener via separate slow lane, so it can't delay the others */
+        isolate
+    }
+
+    public static final ListenerPolicy defaults = new ListenerPolicy(Action.isolate, 200, TimeUnit.MILLISECONDS, Action.warn, 10);
+
+    final @NotNull Action onSlow;
+    final long slowNanos;
+    final @NotNull Action onErrors;
+    final int maxErrors;
+
+    /**
+     * @param onSlow action taken when a callback runs longer than slow threshold
+     * @param onErrors action taken when listener has thrown maxErrors times
+     */
+    public ListenerPolicy(@NotNull Action onSlow, long slowThreshold, @NotNull TimeUnit unit, @NotNull Action onErrors, int maxErrors) {
+        this.onSlow = onSlow;
+        this.slowNanos = unit.toNanos(slowThreshold);
+        this.onErrors = onErrors;
+        this.maxErrors = maxErrors;
+    }
+
+}
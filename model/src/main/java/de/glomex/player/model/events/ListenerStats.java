@@ -0,0 +1,59 @@
+package de.glomex.player.model.events;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution accounting of one listener.
+ * Updated by the only drainer of the listener's mailbox, so plain volatile fields are enough.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ListenerStats {
+
+    private volatile long calls;
+    private volatile long errors;
+    private volatile long slowCalls;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    // single writer
+    void record(long nanos, boolean failed, boolean slow) {
+        calls++;
+        totalNanos += nanos;
+        if (nanos > maxNanos)
+            maxNanos = nanos;
+        if (failed)
+            errors++;
+        if (slow)
+            slowCalls++;
+    }
+
+    public long calls() {
+        return calls;
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    public long slowCalls() {
+        return slowCalls;
+    }
+
+    public long averageMicros() {
+        long count = calls;
+        return count == 0? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / count);
+    }
+
+    public long maxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return calls + " calls, " + errors + " errors, " + slowCalls + " slow, avg " + averageMicros() + "us, max " + maxMicros() + "us";
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.ListenerTag;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Single consumer queue of calls to one listener.
+ * Listener implementing several types has one mailbox, so all its callbacks are delivered in order they were raised.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+class Mailbox {
+
+    interface Monitor {
+        void completed(@NotNull Mailbox mailbox, long nanos, @Nullable RuntimeException error);
+    }
+
+    private final @NotNull ListenerTag listener;
+    private final Queue<Consumer<?>> calls = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ListenerStats stats = new ListenerStats();
+
+    // null - default lane of the event handler
+    private volatile @Nullable MailboxScheduler lane;
+
+    Mailbox(@NotNull ListenerTag listener) {
+        this.listener = listener;
+    }
+
+    @NotNull ListenerTag listener() {
+        return listener;
+    }
+
+    @NotNull ListenerStats stats() {
+        return stats;
+    }
+
+    @Nullable MailboxScheduler lane() {
+        return lane;
+    }
+
+    void lane(@NotNull MailboxScheduler lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * @return true if mailbox has to be scheduled for draining
+     */
+    boolean post(@NotNull Consumer<?> call) {
+        calls.offer(call);
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Called by one drainer at a time.
+     * @return true if mailbox still has calls and has to be scheduled again
+     */
+    @SuppressWarnings("unchecked")
+    boolean drain(int batch, @NotNull Monitor monitor) {
+        Consumer<ListenerTag> call;
+        for (int i = 0; i < batch && (call = (Consumer<ListenerTag>) calls.poll()) != null; i++) {
+            RuntimeException failure = null;
+            long started = System.nanoTime();
+            try {
+                call.accept(listener);
+            } catch (RuntimeException error) {
+                failure = error;
+            }
+            monitor.completed(this, System.nanoTime() - started, failure);
+        }
+        scheduled.set(false);
+        return !calls.isEmpty() && scheduled.compareAndSet(false, true);
+    }
+
+    void clear() {
+        calls.clear();
+    }
+
+    int size() {
+        return calls.size();
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.model.api.Logging;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Drains listeners' mailboxes using limited number of executor tasks.
+ *
+ * Mailboxes with pending calls are queued as ready; every drainer takes a mailbox, delivers up to batch calls
+ * and puts it back to the end of ready queue if more calls are pending, so busy listener doesn't starve others.
+ * Number of tasks in executor never exceeds parallelism, regardless of listeners or events count.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+class MailboxScheduler {
+
+    private static final Logger log = Logging.getLogger(MailboxScheduler.class);
+
+    private final @NotNull Executor executor;
+    private final @NotNull Mailbox.Monitor monitor;
+    private final int parallelism;
+    private final int batch;
+
+    private final Queue<Mailbox> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainers = new AtomicInteger();
+    private final Runnable drainer = this::drain;
+
+    MailboxScheduler(@NotNull Executor executor, @NotNull Mailbox.Monitor monitor, int parallelism, int batch) {
+        this.executor = executor;
+        this.monitor = monitor;
+        this.parallelism = parallelism;
+        this.batch = batch;
+    }
+
+    void post(@NotNull Mailbox mailbox, @NotNull Consumer<?> call) {
+        if (mailbox.post(call))
+            ready(mailbox);
+    }
+
+    private void ready(@NotNull Mailbox mailbox) {
+        ready.offer(mailbox);
+        spawn();
+    }
+
+    private void spawn() {
+        int current;
+        while ((current = drainers.get()) < parallelism)
+            if (drainers.compareAndSet(current, current + 1)) {
+                try {
+                    executor.execute(drainer);
+                } catch (RejectedExecutionException shutdown) {
+                    drainers.decrementAndGet();
+                    log.fine("Executor is shut down, pending calls are dropped");
+                }
+                return;
+            }
+    }
+
+    private void drain() {
+        try {
+            Mailbox mailbox;
+            while ((mailbox = ready.poll()) != null)
+                if (mailbox.drain(batch, monitor)) {
+                    // mailbox could be moved to another lane during the drain
+                    MailboxScheduler lane = mailbox.lane();
+                    if (lane == null || lane == this)
+                        ready.offer(mailbox);
+                    else
+                        lane.ready(mailbox);
+                }
+        } finally {
+            drainers.decrementAndGet();
+            // mailbox could become ready while all drainers were busy
+            if (!ready.isEmpty())
+                spawn();
+        }
+    }
+
+}
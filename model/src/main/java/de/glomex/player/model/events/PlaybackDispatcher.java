@@ -0,0 +1,85 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.playback.PlaybackListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+class PlaybackDispatcher extends Dispatcher<PlaybackListener> implements PlaybackListener {
+
+    PlaybackDispatcher(@NotNull EventHandler handler) {
+        super(handler, PlaybackListener.class);
+    }
+
+    // pending coalesced events go first
+    private void flushCoalesced() {
+        EventCoalescer coalescer = handler.coalescer();
+        if (coalescer != null)
+            coalescer.flush();
+    }
+
+    @Override
+    public void onReady() {
+        flushCoalesced();
+        event(EventKind.onReady);
+        fanOut(EventKind.onReady, PlaybackListener::onReady);
+    }
+
+    @Override
+    public void onPlay() {
+        EventCoalescer coalescer = handler.coalescer();
+        if (coalescer != null)
+            coalescer.play(true);
+        else
+            raisePlay();
+    }
+
+    void raisePlay() {
+        event(EventKind.onPlay);
+        fanOut(EventKind.onPlay, PlaybackListener::onPlay);
+    }
+
+    @Override
+    public void onPause() {
+        EventCoalescer coalescer = handler.coalescer();
+        if (coalescer != null)
+            coalescer.play(false);
+        else
+            raisePause();
+    }
+
+    void raisePause() {
+        event(EventKind.onPause);
+        fanOut(EventKind.onPause, PlaybackListener::onPause);
+    }
+
+    @Override
+    public void onSeek(long position) {
+        EventCoalescer coalescer = handler.coalescer();
+        if (coalescer != null)
+            coalescer.seek(position);
+        else
+            raiseSeek(position);
+    }
+
+    void raiseSeek(long position) {
+        event(EventKind.onSeek, position);
+        fanOut(EventKind.onSeek, listener -> listener.onSeek(position));
+    }
+
+    @Override
+    public void onError(@NotNull String message) {
+        flushCoalesced();
+        event(EventKind.onError, message);
+        fanOut(EventKind.onError, listener -> listener.onError(message));
+    }
+
+    @Override
+    public void onFinished() {
+        flushCoalesced();
+        event(EventKind.onFinished);
+        fanOut(EventKind.onFinished, PlaybackListener::onFinished);
+    }
+
+}
@@ -0,0 +1,29 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.model.player.MediaPlayer;
+import de.glomex.player.model.player.PlayerListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+class PlayerDispatcher extends Dispatcher<PlayerListener<MediaPlayer<?>>> implements PlayerListener<MediaPlayer<?>> {
+
+    @SuppressWarnings("unchecked")
+    PlayerDispatcher(@NotNull EventHandler handler) {
+        super(handler, (Class<PlayerListener<MediaPlayer<?>>>) (Class<?>) PlayerListener.class);
+    }
+
+    @Override
+    public void onCreated(@NotNull MediaPlayer<?> player) {
+        event(EventKind.onCreated, player);
+        fanOut(EventKind.onCreated, listener -> listener.onCreated(player));
+    }
+
+    @Override
+    public void onActivated(@NotNull MediaPlayer<?> player) {
+        event(EventKind.onActivated, player);
+        fanOut(EventKind.onActivated, listener -> listener.onActivated(player));
+    }
+
+}
@@ -0,0 +1,34 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.api.playlist.PlaylistListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+class PlaylistDispatcher extends Dispatcher<PlaylistListener> implements PlaylistListener {
+
+    PlaylistDispatcher(@NotNull EventHandler handler) {
+        super(handler, PlaylistListener.class);
+    }
+
+    @Override
+    public void onChanged() {
+        event(EventKind.onChanged);
+        fanOut(EventKind.onChanged, PlaylistListener::onChanged);
+    }
+
+    @Override
+    public void onNext(@NotNull MediaID mediaID) {
+        event(EventKind.onNext, mediaID);
+        fanOut(EventKind.onNext, listener -> listener.onNext(mediaID));
+    }
+
+    @Override
+    public void onPlaylistFinished() {
+        event(EventKind.onPlaylistFinished);
+        fanOut(EventKind.onPlaylistFinished, PlaylistListener::onPlaylistFinished);
+    }
+
+}
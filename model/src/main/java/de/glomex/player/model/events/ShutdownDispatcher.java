@@ -0,0 +1,21 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.etc.ShutdownListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+class ShutdownDispatcher extends Dispatcher<ShutdownListener> implements ShutdownListener {
+
+    ShutdownDispatcher(@NotNull EventHandler handler) {
+        super(handler, ShutdownListener.class);
+    }
+
+    @Override
+    public void onShutdown() {
+        event(EventKind.onShutdown);
+        fanOut(EventKind.onShutdown, ShutdownListener::onShutdown);
+    }
+
+}
@@ -1,14 +1,28 @@
 package de.glomex.player.model.events;
 
 import de.glomex.player.api.ListenerTag;
+import de.glomex.player.api.events.Flow;
+import de.glomex.player.api.events.Overflow;
+import de.glomex.player.api.events.PlayerEvent;
 import de.glomex.player.api.events.SubscribeControl;
 import de.glomex.player.model.InternalTag;
+import de.glomex.player.model.metrics.RateCounter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Method;
 import java.util.*;
 
 /**
  * Listener can implements few types at once.
+ * Every listener gets a single mailbox, shared by all types it implements.
+ * Listener is subscribed to the callbacks it handles only, so no-op callbacks aren't even scheduled.
+ *
+ * Reads are lock free: mailboxes are published as immutable per-callback arrays, swapped via volatile snapshot.
+ * Writes (rare) rebuild the snapshot under the lock, so listener registered or unregistered during dispatch
+ * doesn't affect the event being dispatched.
+ *
+ * Event publishers are kept here as well, see {@link EventStreams}.
  *
  * Created by <b>me@olexxa.com</b>
  */
@@ -17,81 +31,198 @@ public class SubscribeManager implements SubscribeControl {
     // Plain old lock because of small amount of writes: CHM isn't effective
     private final Object lock = new Object();
 
-    class Storage extends HashMap<Class<? extends ListenerTag>, Set<ListenerTag>> {}
+    class Storage extends EnumMap<EventKind, Set<Mailbox>> {
+        Storage() {
+            super(EventKind.class);
+        }
+    }
 
     private final Storage
         internals = new Storage(),
         externals = new Storage();
 
+    private final Map<ListenerTag, Mailbox> mailboxes = new HashMap<>();
+
+    private static class Snapshot {
+
+        static final Mailbox[] none = new Mailbox[0];
+
+        static final Snapshot empty = new Snapshot(empty(), empty());
+
+        // indexed by event kind id
+        final Mailbox[][] internals;
+        final Mailbox[][] externals;
+
+        Snapshot(@NotNull Mailbox[][] internals, @NotNull Mailbox[][] externals) {
+            this.internals = internals;
+            this.externals = externals;
+        }
+
+        static Mailbox[][] empty() {
+            Mailbox[][] empty = new Mailbox[EventKind.values().length][];
+            Arrays.fill(empty, none);
+            return empty;
+        }
+    }
+
+    // Callbacks handled by a listener class, resolved once per class:
+    // methods of implemented types, except ones inherited from empty adapters
+    private static final ClassValue<Set<EventKind>> handled =
+        new ClassValue<Set<EventKind>>() {
+            @Override
+            protected Set<EventKind> computeValue(Class<?> type) {
+                Set<EventKind> result = EnumSet.noneOf(EventKind.class);
+                for (Method method: type.getMethods()) {
+                    EventKind kind = kind(type, method.getName());
+                    if (kind != null && !method.getDeclaringClass().isAnnotationPresent(EmptyAdapter.class))
+                        result.add(kind);
+                }
+                return Collections.unmodifiableSet(result);
+            }
+        };
+
+    private volatile Snapshot snapshot = Snapshot.empty;
+
+    private final EventStreams streams = new EventStreams();
+
+    private final RateCounter registrations = new RateCounter();
+    private final RateCounter unregistrations = new RateCounter();
+
+    /**
+     * Listener is called only for methods it overrides, see {@link EmptyAdapter}.
+     */
     @Override
     public void registerListener(@NotNull ListenerTag listener) {
-        Class type = listener.getClass();
-        Storage target =  listener instanceof InternalTag? internals : externals;
+        register(listener, handled.get(listener.getClass()));
+    }
+
+    /**
+     * Listener is called only for callbacks given, e.g. "onContentStarted".
+     */
+    @Override
+    public void registerListener(@NotNull ListenerTag listener, @NotNull String... callbacks) {
+        if (callbacks.length == 0)
+            throw new IllegalArgumentException("No callbacks given for " + listener);
+        Set<EventKind> kinds = EnumSet.noneOf(EventKind.class);
+        for (String callback: callbacks) {
+            EventKind kind = kind(listener.getClass(), callback);
+            if (kind == null)
+                throw new IllegalArgumentException(listener + " doesn't implement " + callback);
+            kinds.add(kind);
+        }
+        register(listener, kinds);
+    }
+
+    private void register(@NotNull ListenerTag listener, @NotNull Set<EventKind> kinds) {
+        boolean internal = listener instanceof InternalTag;
+        Storage target =  internal? internals : externals;
         synchronized (lock) {
-            EventHandler.listenerTypes.stream()
-                .filter(probe -> probe.isAssignableFrom(type))
-                .forEach(probe -> {
-                    Set<ListenerTag> set = target.computeIfAbsent(probe, key -> new HashSet<>());
-                    set.add(listener);
-                });
-            //for (Class<? extends ListenerTag> probe : EventHandler.listenerTypes) {
-            //    if (probe.isAssignableFrom(type)) {
-            //        Set<ListenerTag> set;
-            //        if (!target.containsKey(probe)) {
-            //            set = new HashSet<>();
-            //            target.put(probe, set);
-            //        } else {
-            //            set = target.get(probe);
-            //        }
-            //        Set<ListenerTag> set = target.computeIfAbsent(probe, key -> new HashSet<>());
-            //        set.add(listener);
-            //    }
-            //}
+            Mailbox mailbox = mailboxes.computeIfAbsent(listener, Mailbox::new);
+            for (EventKind kind: kinds)
+                target.computeIfAbsent(kind, key -> new LinkedHashSet<>()).add(mailbox);
+            publish(internal, kinds);
         }
+        registrations.increment();
     }
 
     @Override
     public void unregisterListener(@NotNull ListenerTag listener) {
-        Class type = listener.getClass();
-        Storage target =  listener instanceof InternalTag? internals : externals;
+        boolean internal = listener instanceof InternalTag;
+        Storage target =  internal? internals : externals;
         synchronized (lock) {
-            EventHandler.listenerTypes.stream()
-                .filter(probe -> probe.isAssignableFrom(type))
-                .filter(target::containsKey)
-                .forEach(probe -> {
-                    Set<ListenerTag> set = target.get(probe);
-                    set.remove(listener);
-                });
-            //for (Class<? extends ListenerTag> probe : EventHandler.listenerTypes) {
-            //    if (probe.isAssignableFrom(type)) {
-            //        if (target.containsKey(probe)) {
-            //            Set<ListenerTag> set = target.get(probe);
-            //            set.remove(listener);
-            //        }
-            //    }
-            //}
+            // calls already posted to the mailbox are still delivered
+            Mailbox mailbox = mailboxes.remove(listener);
+            if (mailbox == null)
+                return;
+            Set<EventKind> kinds = EnumSet.noneOf(EventKind.class);
+            target.forEach((kind, set) -> {
+                if (set.remove(mailbox))
+                    kinds.add(kind);
+            });
+            publish(internal, kinds);
         }
+        unregistrations.increment();
+    }
+
+    private static @Nullable EventKind kind(@NotNull Class<?> type, @NotNull String callback) {
+        for (EventKind kind: EventKind.values())
+            if (kind.name().equals(callback) && kind.type().isAssignableFrom(type))
+                return kind;
+        return null;
+    }
+
+    @Override
+    public @NotNull Flow.Publisher<PlayerEvent> events(@NotNull Class<? extends ListenerTag> type, int capacity, @NotNull Overflow overflow) {
+        return streams.publisher(type, capacity, overflow);
+    }
+
+    @Override
+    public @NotNull Flow.Publisher<PlayerEvent> events(int capacity, @NotNull Overflow overflow) {
+        return streams.publisher(null, capacity, overflow);
+    }
+
+    @NotNull EventStreams streams() {
+        return streams;
     }
 
-    public <L extends ListenerTag> Set<L> internals(@NotNull Class<L> type) {
-        return get(type, true);
+    public @NotNull RateCounter registrations() {
+        return registrations;
     }
 
-    public <L extends ListenerTag> Set<L> externals(@NotNull Class<L> type) {
-        return get(type, false);
+    public @NotNull RateCounter unregistrations() {
+        return unregistrations;
     }
 
-    @SuppressWarnings("unchecked")
-    private <L extends ListenerTag> Set<L> get(@NotNull Class<L> type, boolean internal) {
-        Storage target = internal? internals : externals;
+    public @NotNull Map<ListenerTag, ListenerStats> listenerStats() {
+        Map<ListenerTag, ListenerStats> stats = new HashMap<>();
         synchronized (lock) {
-            return target.containsKey(type) ? (Set<L>) target.get(type) : Collections.<L>emptySet();
+            mailboxes.forEach((listener, mailbox) -> stats.put(listener, mailbox.stats()));
         }
+        return stats;
+    }
+
+    /**
+     * Returned array is shared and must not be modified.
+     */
+    @NotNull Mailbox[] internals(@NotNull EventKind kind) {
+        return snapshot.internals[kind.id()];
+    }
+
+    /**
+     * Returned array is shared and must not be modified.
+     */
+    @NotNull Mailbox[] externals(@NotNull EventKind kind) {
+        return snapshot.externals[kind.id()];
+    }
+
+    // outer synchronization required
+    // only arrays of the kinds changed are rebuilt, the rest are shared with the previous snapshot
+    private void publish(boolean internal, @NotNull Set<EventKind> kinds) {
+        if (kinds.isEmpty())
+            return;
+        Snapshot current = snapshot;
+        snapshot = internal?
+            new Snapshot(freeze(internals, current.internals, kinds), current.externals) :
+            new Snapshot(current.internals, freeze(externals, current.externals, kinds));
+    }
+
+    private Mailbox[][] freeze(@NotNull Storage storage, @NotNull Mailbox[][] previous, @NotNull Set<EventKind> kinds) {
+        Mailbox[][] frozen = previous.clone();
+        for (EventKind kind: kinds) {
+            Set<Mailbox> listeners = storage.get(kind);
+            frozen[kind.id()] = listeners == null || listeners.isEmpty()? Snapshot.none : listeners.toArray(Snapshot.none);
+        }
+        return frozen;
     }
 
     public void shutdown() {
-        externals.clear();
-        internals.clear();
+        synchronized (lock) {
+            externals.clear();
+            internals.clear();
+            mailboxes.clear();
+            snapshot = Snapshot.empty;
+        }
+        streams.complete();
     }
 
 }
@@ -0,0 +1,182 @@
+package de.glomex.player.model.journal;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.events.EventKind;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Append-only binary journal of events, written to memory-mapped segment files.
+ *
+ * Every event takes one fixed-size record:
+ *   int    kind id + 1 (0 marks unused slot, written last)
+ *   long   timestamp
+ *   long   value
+ *   short  length + bytes: first argument, UTF-8, truncated
+ *   short  length + bytes: second argument, UTF-8, truncated
+ *   byte   type of first argument, see {@link #NONE}, {@link #TEXT}, {@link #MEDIA}, {@link #OTHER}
+ *   byte   type of second argument
+ *
+ * Arguments are encoded straight into mapped memory, so journal adds no allocation on top of arguments' toString().
+ * When segment is full, the next one is created; oldest segments are deleted above the limit.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventJournal implements Closeable {
+
+    private static final Logger log = Logging.getLogger(EventJournal.class);
+
+    public static final int RECORD_SIZE = 128;
+    public static final int DEFAULT_SEGMENT_RECORDS = 64 * 1024; // 8 Mb
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+
+    static final int TEXT_SIZE = 48;
+    static final int KIND = 0, TIMESTAMP = 4, VALUE = 12, FIRST = 20, SECOND = FIRST + 2 + TEXT_SIZE, TYPES = SECOND + 2 + TEXT_SIZE;
+
+    // argument types, so arguments are restored as they were passed
+    static final byte NONE = 0, TEXT = 1, MEDIA = 2, OTHER = 3;
+
+    static final String PREFIX = "events-", SUFFIX = ".journal";
+
+    private final @NotNull Path directory;
+    private final int segmentRecords;
+    private final int maxSegments;
+
+    private long segment;
+    private int index;
+    private @Nullable MappedByteBuffer buffer;
+
+    public EventJournal(@NotNull Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    public EventJournal(@NotNull Path directory, int segmentRecords, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        segment = existing.isEmpty()? 0 : number(existing.get(existing.size() - 1)) + 1;
+        open();
+    }
+
+    public synchronized void append(@NotNull EventKind kind, long timestamp, @Nullable Object first, @Nullable Object second, long value) {
+        if (buffer == null)
+            return;
+        if (index == segmentRecords)
+            try {
+                roll();
+            } catch (IOException error) {
+                log.severe("Error rolling journal, journal is stopped: " + error.getMessage());
+                buffer = null;
+                return;
+            }
+        //noinspection ConstantConditions
+        MappedByteBuffer buffer = this.buffer;
+        int offset = index * RECORD_SIZE;
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putLong(offset + VALUE, value);
+        text(buffer, offset + FIRST, first);
+        text(buffer, offset + SECOND, second);
+        buffer.put(offset + TYPES, type(first));
+        buffer.put(offset + TYPES + 1, type(second));
+        buffer.putInt(offset + KIND, kind.id() + 1);
+        index++;
+    }
+
+    private static byte type(@Nullable Object value) {
+        return value == null? NONE : value instanceof String? TEXT : value instanceof MediaID? MEDIA : OTHER;
+    }
+
+    private static void text(@NotNull MappedByteBuffer buffer, int offset, @Nullable Object value) {
+        int length = 0;
+        if (value != null) {
+            String text = value.toString();
+            int position = offset + 2;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if (length + 1 > TEXT_SIZE) break;
+                    buffer.put(position + length++, (byte) c);
+                } else if (c < 0x800) {
+                    if (length + 2 > TEXT_SIZE) break;
+                    buffer.put(position + length++, (byte) (0xC0 | c >> 6));
+                    buffer.put(position + length++, (byte) (0x80 | c & 0x3F));
+                } else {
+                    if (length + 3 > TEXT_SIZE) break;
+                    buffer.put(position + length++, (byte) (0xE0 | c >> 12));
+                    buffer.put(position + length++, (byte) (0x80 | c >> 6 & 0x3F));
+                    buffer.put(position + length++, (byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+        buffer.putShort(offset, (short) length);
+    }
+
+    // outer synchronization required
+    private void roll() throws IOException {
+        //noinspection ConstantConditions
+        buffer.force();
+        segment++;
+        open();
+        List<Path> existing = segments(directory);
+        for (int i = 0; i < existing.size() - maxSegments; i++)
+            Files.deleteIfExists(existing.get(i));
+    }
+
+    private void open() throws IOException {
+        Path file = directory.resolve(name(segment));
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // mapping stays valid after channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        }
+        index = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+    }
+
+    static @NotNull String name(long segment) {
+        return String.format("%s%010d%s", PREFIX, segment, SUFFIX);
+    }
+
+    static long number(@NotNull Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Segment files, oldest first
+     */
+    static @NotNull List<Path> segments(@NotNull Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (Files.isDirectory(directory))
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                for (Path path: stream)
+                    segments.add(path);
+            }
+        Collections.sort(segments);
+        return segments;
+    }
+
+}
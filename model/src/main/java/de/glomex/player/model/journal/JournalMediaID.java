@@ -0,0 +1,34 @@
+package de.glomex.player.model.journal;
+
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Media ID restored from journal: only text representation of original ID is known.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class JournalMediaID implements MediaID {
+
+    private final @NotNull String id;
+
+    JournalMediaID(@NotNull String id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof JournalMediaID && id.equals(((JournalMediaID) other).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
@@ -0,0 +1,176 @@
+package de.glomex.player.model.journal;
+
+import de.glomex.player.api.etc.ShutdownListener;
+import de.glomex.player.api.lifecycle.LifecycleListener;
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.api.playback.PlaybackListener;
+import de.glomex.player.api.playlist.PlaylistListener;
+import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.events.EventHandler;
+import de.glomex.player.model.events.EventKind;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static de.glomex.player.model.journal.EventJournal.*;
+
+/**
+ * Reads journal written by {@link EventJournal} and raises its events again,
+ * at original speed, accelerated, or as fast as possible.
+ *
+ * Arguments are restored by their journaled types: media IDs as {@link JournalMediaID}s, strings as strings,
+ * other objects as their text; player events are skipped, players can't be restored.
+ *
+ * Usage as a tool: JournalReplay &lt;journal directory&gt; - prints journal content.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class JournalReplay {
+
+    private static final Logger log = Logging.getLogger(JournalReplay.class);
+
+    /** Replays without delays */
+    public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+    public interface Visitor {
+        void visit(@NotNull EventKind kind, long timestamp, @Nullable Object first, @Nullable Object second, long value);
+    }
+
+    private final @NotNull Path directory;
+
+    public JournalReplay(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Raises journal events through the handler's dispatchers, as if they happen again.
+     * If the handler's journal is on, replayed events are journaled as well.
+     *
+     * @param speed 1 - original speed, 10 - ten times faster, {@link #UNLIMITED} - no delays
+     * @return number of events replayed
+     */
+    public int replay(@NotNull EventHandler handler, double speed) throws IOException {
+        int[] count = new int[1];
+        long[] previous = new long[] { -1 };
+        read((kind, timestamp, first, second, value) -> {
+            if (previous[0] >= 0 && speed != UNLIMITED)
+                pause(Math.round((timestamp - previous[0]) / speed));
+            previous[0] = timestamp;
+            if (raise(handler, kind, first, second, value))
+                count[0]++;
+        });
+        return count[0];
+    }
+
+    private static void pause(long millis) {
+        if (millis > 0)
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+    }
+
+    private static boolean raise(@NotNull EventHandler handler, @NotNull EventKind kind, @Nullable Object first, @Nullable Object second, long value) {
+        MediaID id = first instanceof MediaID? (MediaID) first : new JournalMediaID(String.valueOf(first));
+        String message = second != null? second.toString() : "";
+        PlaylistListener playlist = handler.playlistListener();
+        LifecycleListener lifecycle = handler.lifecycleListener();
+        PlaybackListener playback = handler.playbackListener();
+        ShutdownListener shutdown = handler.shutdownListener();
+        switch (kind) {
+            case onChanged:             playlist.onChanged(); break;
+            case onNext:                playlist.onNext(id); break;
+            case onPlaylistFinished:    playlist.onPlaylistFinished(); break;
+
+            case onContentResolved:     lifecycle.onContentResolved(id); break;
+            case onContentError:        lifecycle.onContentError(id, message); break;
+            case onAdsResolved:         lifecycle.onAdsResolved(id); break;
+            case onAdsError:            lifecycle.onAdsError(id, message); break;
+            case onContentStarted:      lifecycle.onContentStarted(id); break;
+            case onContentCompleted:    lifecycle.onContentCompleted(id); break;
+            case onAdStarted:           lifecycle.onAdStarted(id); break;
+            case onAdCompleted:         lifecycle.onAdCompleted(id); break;
+            case onLifecycleStarted:    lifecycle.onLifecycleStarted(id); break;
+            case onLifecycleCompleted:  lifecycle.onLifecycleCompleted(id); break;
+            case onLifecycleError:      lifecycle.onLifecycleError(id, message); break;
+
+            case onReady:               playback.onReady(); break;
+            case onPlay:                playback.onPlay(); break;
+            case onPause:               playback.onPause(); break;
+            case onSeek:                playback.onSeek(value); break;
+            // the only argument of onError is the message
+            case onError:               playback.onError(String.valueOf(first)); break;
+            case onFinished:            playback.onFinished(); break;
+
+            case onShutdown:            shutdown.onShutdown(); break;
+
+            default:
+                log.finest("Skipping " + kind);
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads all segments, oldest first
+     */
+    public void read(@NotNull Visitor visitor) throws IOException {
+        byte[] text = new byte[TEXT_SIZE];
+        Map<String, MediaID> ids = new HashMap<>();
+        for (Path segment: segments(directory))
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE) {
+                    int kind = buffer.getInt(offset + KIND);
+                    if (kind == 0)
+                        break; // end of written records
+                    visitor.visit(
+                        EventKind.of(kind - 1),
+                        buffer.getLong(offset + TIMESTAMP),
+                        argument(buffer.get(offset + TYPES), text(buffer, offset + FIRST, text), ids),
+                        argument(buffer.get(offset + TYPES + 1), text(buffer, offset + SECOND, text), ids),
+                        buffer.getLong(offset + VALUE)
+                    );
+                }
+            }
+    }
+
+    private static @NotNull String text(@NotNull MappedByteBuffer buffer, int offset, byte[] text) {
+        int length = buffer.getShort(offset);
+        for (int i = 0; i < length; i++)
+            text[i] = buffer.get(offset + 2 + i);
+        return new String(text, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static @Nullable Object argument(byte type, @NotNull String text, @NotNull Map<String, MediaID> ids) {
+        switch (type) {
+            case NONE:  return null;
+            case MEDIA: return ids.computeIfAbsent(text, JournalMediaID::new);
+            default:    return text;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JournalReplay <journal directory>");
+            System.exit(1);
+        }
+        new JournalReplay(Paths.get(args[0])).read((kind, timestamp, first, second, value) ->
+            System.out.println(timestamp + " " + kind.type().getSimpleName() + "." + kind.name() + "(" +
+                (kind.valued()? String.valueOf(value) : (first != null? first : "") + (second != null? ", " + second : "")) + ")")
+        );
+    }
+
+}
@@ -0,0 +1,58 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.lifecycle.AdResolver;
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers ad decisions, so replaying or revisiting media doesn't ask ad server again.
+ *
+ * Resolved list is kept as immutable snapshot, as resolver may reuse its own;
+ * asynchronous and batch resolves, cached by the same cache, are to be snapshot too, see {@link #snapshot(List)}.
+ * Ads are shared between lifecycles: each one schedules its own copies, see {@link ResolvedLifecycle}.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class CachingAdResolver implements AdResolver {
+
+    private final @NotNull AdResolver resolver;
+    private final @NotNull ResolverCache<List<Advertise>> cache;
+
+    public CachingAdResolver(@NotNull AdResolver resolver, int size, long ttlMillis, long errorTtlMillis) {
+        this.resolver = resolver;
+        cache = new ResolverCache<>(size, ads -> ttlMillis, errorTtlMillis);
+    }
+
+    @Override
+    public @NotNull List<Advertise> resolve(@NotNull MediaID mediaID) {
+        return cache.get(mediaID, id -> snapshot(resolver.resolve(id)));
+    }
+
+    public static @NotNull List<Advertise> snapshot(@NotNull List<Advertise> ads) {
+        return Collections.unmodifiableList(new ArrayList<>(ads));
+    }
+
+    /**
+     * Missing ads are left missing
+     */
+    public static @NotNull Map<MediaID, List<Advertise>> snapshots(@NotNull Map<MediaID, List<Advertise>> ads) {
+        Map<MediaID, List<Advertise>> snapshots = new HashMap<>();
+        ads.forEach((mediaID, list) -> {
+            if (list != null)
+                snapshots.put(mediaID, snapshot(list));
+        });
+        return snapshots;
+    }
+
+    public @NotNull ResolverCache<List<Advertise>> cache() {
+        return cache;
+    }
+
+}
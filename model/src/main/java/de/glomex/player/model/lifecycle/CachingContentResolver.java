@@ -0,0 +1,35 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.lifecycle.ContentResolver;
+import de.glomex.player.api.media.Content;
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Remembers resolved content, so going back and forth in playlist doesn't resolve the same media again.
+ * Stream info is kept shorter than VOD one: stream URLs tend to change.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class CachingContentResolver implements ContentResolver {
+
+    private final @NotNull ContentResolver resolver;
+    private final @NotNull ResolverCache<Content> cache;
+
+    public CachingContentResolver(
+        @NotNull ContentResolver resolver, int size, long ttlMillis, long streamTtlMillis, long errorTtlMillis
+    ) {
+        this.resolver = resolver;
+        cache = new ResolverCache<>(size, content -> content.isStream()? streamTtlMillis : ttlMillis, errorTtlMillis);
+    }
+
+    @Override
+    public @NotNull Content resolve(@NotNull MediaID mediaID) {
+        return cache.get(mediaID, resolver::resolve);
+    }
+
+    public @NotNull ResolverCache<Content> cache() {
+        return cache;
+    }
+
+}
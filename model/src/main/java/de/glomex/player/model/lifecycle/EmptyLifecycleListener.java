@@ -2,11 +2,13 @@ package de.glomex.player.model.lifecycle;
 
 import de.glomex.player.api.lifecycle.LifecycleListener;
 import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.events.EmptyAdapter;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by <b>me@olexxa.com</b>
  */
+@EmptyAdapter
 public abstract class EmptyLifecycleListener implements LifecycleListener {
 
     @Override
@@ -7,7 +7,10 @@ import de.glomex.player.api.playback.PlaybackControl;
 import de.glomex.player.api.playback.PlaybackListener;
 import de.glomex.player.model.api.ActionDispatcher;
 import de.glomex.player.model.api.EtcController;
+import de.glomex.player.model.api.ExecutionManager;
 import de.glomex.player.model.api.GlomexPlayerFactory;
+import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.api.Priority;
 import de.glomex.player.model.events.SubscribeManager;
 import de.glomex.player.model.playback.EmptyPlaybackListener;
 import de.glomex.player.model.playback.WaitingPlaybackController;
@@ -16,7 +19,13 @@ import de.glomex.player.model.player.MediaPlayerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 /**
  * TODO: MediaPlayerFactory & player - move to separate actor.
@@ -25,6 +34,11 @@ import java.util.function.Consumer;
  */
 public class LifecycleExecutor {
 
+    private static final Logger log = Logging.getLogger(LifecycleExecutor.class);
+
+    // players, which don't dispose in time, are abandoned
+    private static final long DISPOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+
     private static enum Playing { content, ad }
 
     private final @NotNull ActionDispatcher actionDispatcher;
@@ -157,15 +171,42 @@ public class LifecycleExecutor {
     }
 
     public void shutdown() {
+        for (MediaPlayer<?> player: release())
+            player.shutdown();
+    }
+
+    /**
+     * Disposes players in parallel.
+     */
+    public @NotNull CompletableFuture<Void> shutdownAsync() {
+        List<Callable<Void>> disposals = new ArrayList<>();
+        for (MediaPlayer<?> player: release())
+            disposals.add(() -> {
+                player.shutdown();
+                return null;
+            });
+        ExecutionManager executor = GlomexPlayerFactory.instance(ExecutionManager.class);
+        return executor
+            .<Void>executeAll(Priority.control, disposals, 0, DISPOSE_TIMEOUT, TimeUnit.MILLISECONDS)
+            .thenAccept(results -> {
+                if (!results.complete())
+                    log.warning("Error disposing players: " + results);
+            });
+    }
+
+    // detaches from playback, returns players to dispose
+    private @NotNull List<MediaPlayer<?>> release() {
         subscribeManager.unregisterListener(playbackListener);
 
         WaitingPlaybackController coming = new WaitingPlaybackController();
         PlaybackControl previous = actionDispatcher.switchController(coming);
         coming.shouldPlay(previous.isPlaying());
 
-        contentPlayer.shutdown();
-        if (player != contentPlayer)
-            player.shutdown();
+        List<MediaPlayer<?>> players = new ArrayList<>(2);
+        players.add(contentPlayer);
+        if (player != null && player != contentPlayer)
+            players.add(player);
+        return players;
     }
 
 }
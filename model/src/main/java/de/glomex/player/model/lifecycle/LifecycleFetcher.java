@@ -1,16 +1,27 @@
 package de.glomex.player.model.lifecycle;
 
+import de.glomex.player.api.lifecycle.AdResolver;
+import de.glomex.player.api.lifecycle.ContentResolver;
 import de.glomex.player.api.lifecycle.LifecycleListener;
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.Content;
 import de.glomex.player.api.media.MediaID;
 import de.glomex.player.model.api.EtcController;
+import de.glomex.player.model.api.ExecutionManager;
 import de.glomex.player.model.api.GlomexPlayerFactory;
 import de.glomex.player.model.api.Logging;
+import de.glomex.player.model.api.Priority;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
@@ -27,39 +38,116 @@ public class LifecycleFetcher {
 
     private final @NotNull Lifecycle lifecycle;
 
-    private Future<Void> future;
+    private CompletableFuture<Void> future;
+    // resolving calls, cancelling them interrupts resolvers unless shared with others, see SingleFlight
+    private Future<?> ads;
+    private Future<?> content;
+    // resolver calls of prefetch, taken over by fetch
+    private final List<Future<?>> calls = new CopyOnWriteArrayList<>();
+    // read by flights re-run on handover as well, see SingleFlight
+    private volatile boolean prefetching;
+
+    // lifecycle events of prefetch, fired when fetch is attached
+    private final List<Runnable> notifications = new ArrayList<>();
+    private boolean attached;
+    private boolean closed;
 
     LifecycleFetcher(@NotNull MediaID mediaID) {
         lifecycle = new Lifecycle(mediaID);
     }
 
+    public @NotNull MediaID mediaID() {
+        return lifecycle.mediaID;
+    }
+
+    /**
+     * Callback is called with lifecycle priority when resolving is done, right away if lifecycle is prefetched.
+     */
     public void fetch(@NotNull Consumer<Lifecycle> callback) {
+        start(false);
+        List<Runnable> pending;
+        synchronized (this) {
+            if (closed)
+                return;
+            attached = true;
+            pending = new ArrayList<>(notifications);
+            notifications.clear();
+        }
+        pending.forEach(Runnable::run);
+        // not on the resolver's thread, neither on caller's one
+        ExecutionManager executor = GlomexPlayerFactory.instance(ExecutionManager.class);
+        future.thenRunAsync(() ->
+            callback.accept(lifecycle
+            ), executor.lane(Priority.lifecycle));
+    }
+
+    /**
+     * Starts resolving silently: lifecycle events are postponed till fetch.
+     */
+    void prefetch() {
+        start(true);
+    }
+
+    // prefetch resolves with lower limit and priority; fetch of the prefetched lifecycle takes its calls over,
+    // so they don't wait for the prefetch executor anymore
+    private synchronized void start(boolean prefetch) {
+        if (closed)
+            return;
+        if (future != null) {
+            if (prefetching && !prefetch) {
+                prefetching = false;
+                for (Future<?> call: calls)
+                    if (call instanceof Prefetch)
+                        ((Prefetch) call).takeOver();
+                calls.clear();
+            }
+            return;
+        }
+        prefetching = prefetch;
         EtcController etcController = GlomexPlayerFactory.instance(EtcController.class);
         LifecycleListener lifecycleListener = GlomexPlayerFactory.instance(LifecycleListener.class);
+        ResolverPool resolvers = GlomexPlayerFactory.instance(ResolverPool.class);
+        SingleFlight flights = SingleFlight.instance();
 
-        CompletableFuture<Void> adsFuture = CompletableFuture
-            .supplyAsync(() -> etcController.adResolver().resolve(lifecycle.mediaID))
+        AdResolver adResolver = etcController.adResolver();
+        ContentResolver contentResolver = etcController.contentResolver();
+        MicroBatcher<List<Advertise>> adBatcher = etcController.adBatcher();
+        MicroBatcher<Content> contentBatcher = etcController.contentBatcher();
+        Function<MediaID, CompletionStage<List<Advertise>>> adAsync = etcController.adAsync();
+        Function<MediaID, CompletionStage<Content>> contentAsync = etcController.contentAsync();
+        // batch resolvers are preferred, then asynchronous ones, which don't need a thread
+        CompletableFuture<List<Advertise>> adsResolving = flights.run(etcController.adOrigin(), lifecycle.mediaID,
+            () -> started(adBatcher != null? adBatcher.resolve(lifecycle.mediaID, prefetching) :
+                adAsync != null? resolvers.ads().resolveAsync(() -> adAsync.apply(lifecycle.mediaID), prefetching) :
+                resolvers.ads().resolve(() -> adResolver.resolve(lifecycle.mediaID), prefetching)));
+        CompletableFuture<Content> contentResolving = flights.run(etcController.contentOrigin(), lifecycle.mediaID,
+            () -> started(contentBatcher != null? contentBatcher.resolve(lifecycle.mediaID, prefetching) :
+                contentAsync != null? resolvers.content().resolveAsync(() -> contentAsync.apply(lifecycle.mediaID), prefetching) :
+                resolvers.content().resolve(() -> contentResolver.resolve(lifecycle.mediaID), prefetching)));
+        ads = adsResolving;
+        content = contentResolving;
+
+        CompletableFuture<Void> adsFuture = adsResolving
             .handle((ads, error) -> {
                 if (error == null) {
                     lifecycle.ads(ads);
-                    lifecycleListener.onAdsResolved(lifecycle.mediaID);
+                    notify(() -> lifecycleListener.onAdsResolved(lifecycle.mediaID));
                 } else {
                     log.warning("Error resolving ads: " + error.getMessage());
                     log.warning("Skipping ads");
-                    lifecycleListener.onAdsError(lifecycle.mediaID, error.getMessage());
+                    notify(() -> lifecycleListener.onAdsError(lifecycle.mediaID, error.getMessage()));
                 }
                 return null;
             });
 
-        CompletableFuture<Void> contentFuture = CompletableFuture
-            .supplyAsync(() -> etcController.contentResolver().resolve(lifecycle.mediaID))
+        CompletableFuture<Void> contentFuture = contentResolving
             .handle((content, error) -> {
                 if (error == null) {
                     lifecycle.content(content);
-                    lifecycleListener.onContentResolved(lifecycle.mediaID);
+                    notify(() -> lifecycleListener.onContentResolved(lifecycle.mediaID));
                 } else {
                     log.severe("Error resolving content: " + error.getMessage());
-                    lifecycleListener.onContentError(lifecycle.mediaID, error.getMessage());
+                    notify(() -> lifecycleListener.onContentError(lifecycle.mediaID, error.getMessage()));
                     adsFuture.cancel(false);
                 }
                 return null;
@@ -71,13 +159,32 @@ public class LifecycleFetcher {
                 if (!(error.getCause() instanceof CancellationException))
                     log.severe("Exception in resolvers: " + error.getMessage());
                 return null;
-            })
-            .thenRun(() ->
-                callback.accept(lifecycle
-                ));
+            });
+    }
+
+    // call of a flight started by this fetcher, joined ones run as their starters decide
+    private @NotNull <V> CompletableFuture<V> started(@NotNull CompletableFuture<V> call) {
+        if (prefetching)
+            calls.add(call);
+        return call;
+    }
+
+    private void notify(@NotNull Runnable notification) {
+        synchronized (this) {
+            if (!attached) {
+                notifications.add(notification);
+                return;
+            }
+        }
+        notification.run();
     }
 
-    public void shutdown() {
+    public synchronized void shutdown() {
+        closed = true;
+        if (ads != null)
+            ads.cancel(true);
+        if (content != null)
+            content.cancel(true);
         if (future != null)
             future.cancel(true);
     }
@@ -7,6 +7,7 @@ import de.glomex.player.model.api.Logging;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -22,10 +23,21 @@ public class LifecycleManager {
     private @Nullable LifecycleExecutor lifecycleExecutor;
 
     public LifecycleManager(@NotNull MediaID mediaID) {
+        this(new LifecycleFetcher(mediaID));
+    }
+
+    /**
+     * Takes the prefetch over, if any
+     */
+    public LifecycleManager(@NotNull MediaID mediaID, @NotNull Prefetcher prefetcher) {
+        this(prefetcher.take(mediaID));
+    }
+
+    private LifecycleManager(@NotNull LifecycleFetcher lifecycleFetcher) {
         this.lifecycleListener = GlomexPlayerFactory.instance(LifecycleListener.class);
+        this.lifecycleFetcher = lifecycleFetcher;
 
-        lifecycleListener.onLifecycleStarted(mediaID);
-        lifecycleFetcher = new LifecycleFetcher(mediaID);
+        lifecycleListener.onLifecycleStarted(lifecycleFetcher.mediaID());
         lifecycleFetcher.fetch(this::lifecycle);
     }
 
@@ -51,4 +63,13 @@ public class LifecycleManager {
             lifecycleExecutor.shutdown();
     }
 
+    /**
+     * Cancels resolving, disposes players in parallel.
+     */
+    public @NotNull CompletableFuture<Void> shutdownAsync() {
+        lifecycleFetcher.shutdown();
+        LifecycleExecutor lifecycleExecutor = this.lifecycleExecutor;
+        return lifecycleExecutor != null? lifecycleExecutor.shutdownAsync() : CompletableFuture.completedFuture(null);
+    }
+
 }
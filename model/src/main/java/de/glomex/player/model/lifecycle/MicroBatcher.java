@@ -0,0 +1,191 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.ExecutionManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects single resolves into batch calls of a batch resolver:
+ * batch is sent when window since its first resolve elapses or it's full, whichever comes first.
+ * Batch call is guarded as a single one, see {@link ResolverGuard}.
+ *
+ * Cancelled resolves are left out of the batch; batch call is cancelled when all its resolves are.
+ * Batch call is a prefetch if all its resolves are; taking one of them over takes the call over, see {@link Prefetch}.
+ *
+ * Configured with system properties, see {@link #configured(Function, ResolverGuard, ExecutionManager)}:
+ *   - glomex.resolver.batch.window - ms
+ *   - glomex.resolver.batch.size - max resolves per call
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class MicroBatcher<V> {
+
+    public static final long WINDOW = 10;
+    public static final int MAX_BATCH = 50;
+
+    // resolve's future
+    private static class Request<V> extends CompletableFuture<V> implements Prefetch {
+        final @NotNull MediaID mediaID;
+        volatile boolean prefetch;
+        // set once dispatched
+        volatile @Nullable CompletableFuture<?> call;
+
+        Request(@NotNull MediaID mediaID, boolean prefetch) {
+            this.mediaID = mediaID;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public void takeOver() {
+            prefetch = false;
+            CompletableFuture<?> call = this.call;
+            if (call instanceof Prefetch)
+                ((Prefetch) call).takeOver();
+        }
+    }
+
+    private final @NotNull Function<Collection<MediaID>, Map<MediaID, V>> resolver;
+    private final @NotNull ResolverGuard guard;
+    private final @NotNull ExecutionManager timer;
+    private final long windowMillis;
+    private final int maxBatch;
+
+    private final Object lock = new Object();
+    private List<Request<V>> pending = new ArrayList<>();
+    private @Nullable Future<?> flush;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public MicroBatcher(
+        @NotNull Function<Collection<MediaID>, Map<MediaID, V>> resolver, @NotNull ResolverGuard guard,
+        @NotNull ExecutionManager timer, long windowMillis, int maxBatch
+    ) {
+        if (maxBatch < 1)
+            throw new IllegalArgumentException("Batch size should be positive: " + maxBatch);
+        this.resolver = resolver;
+        this.guard = guard;
+        this.timer = timer;
+        this.windowMillis = windowMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    public static @NotNull <V> MicroBatcher<V> configured(
+        @NotNull Function<Collection<MediaID>, Map<MediaID, V>> resolver, @NotNull ResolverGuard guard, @NotNull ExecutionManager timer
+    ) {
+        return new MicroBatcher<>(
+            resolver, guard, timer,
+            Long.getLong("glomex.resolver.batch.window", WINDOW),
+            Integer.getInteger("glomex.resolver.batch.size", MAX_BATCH)
+        );
+    }
+
+    public @NotNull CompletableFuture<V> resolve(@NotNull MediaID mediaID) {
+        return resolve(mediaID, false);
+    }
+
+    /**
+     * @param prefetch resolve is a prefetch: batch of prefetches only is called on the guard's prefetch executor
+     */
+    public @NotNull CompletableFuture<V> resolve(@NotNull MediaID mediaID, boolean prefetch) {
+        requests.increment();
+        Request<V> request = new Request<>(mediaID, prefetch);
+        List<Request<V>> full = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxBatch)
+                full = take();
+            else if (flush == null)
+                flush = timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        if (full != null)
+            dispatch(full);
+        return request;
+    }
+
+    private void flush() {
+        List<Request<V>> batch;
+        synchronized (lock) {
+            batch = take();
+        }
+        dispatch(batch);
+    }
+
+    // outer synchronization required
+    private @NotNull List<Request<V>> take() {
+        if (flush != null) {
+            flush.cancel(false);
+            flush = null;
+        }
+        List<Request<V>> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void dispatch(@NotNull List<Request<V>> requests) {
+        List<Request<V>> batch = requests.stream()
+            .filter(request -> !request.isDone())
+            .collect(Collectors.toList());
+        if (batch.isEmpty())
+            return;
+        batches.increment();
+        List<MediaID> mediaIDs = batch.stream()
+            .map(request -> request.mediaID)
+            .distinct()
+            .collect(Collectors.toList());
+
+        boolean prefetch = batch.stream().allMatch(request -> request.prefetch);
+        CompletableFuture<Map<MediaID, V>> call = guard.resolve(() -> resolver.apply(mediaIDs), prefetch);
+        call.whenComplete((values, error) -> {
+            for (Request<V> request: batch) {
+                V value = error == null && values != null? values.get(request.mediaID) : null;
+                if (value != null)
+                    request.complete(value);
+                else
+                    request.completeExceptionally(error != null? error : new NoSuchElementException("Not found: " + request.mediaID));
+            }
+        });
+        AtomicInteger waiting = new AtomicInteger(batch.size());
+        for (Request<V> request: batch) {
+            request.call = call;
+            request.whenComplete((value, error) -> {
+                if (request.isCancelled() && waiting.decrementAndGet() == 0)
+                    call.cancel(true);
+            });
+        }
+        // taken over while dispatched
+        if (prefetch && call instanceof Prefetch && batch.stream().anyMatch(request -> !request.prefetch))
+            ((Prefetch) call).takeOver();
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Average resolves per batch call
+     */
+    public double batchSize() {
+        long batches = batches();
+        return batches == 0? 0 : (double) requests() / batches;
+    }
+
+}
@@ -0,0 +1,16 @@
+package de.glomex.player.model.lifecycle;
+
+/**
+ * Future of a resolver call started as prefetch.
+ * Fetch of the media takes it over: the call is continued as a normal one.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+interface Prefetch {
+
+    /**
+     * Attempt waiting for the prefetch executor is moved to the normal one, so are the further attempts
+     */
+    void takeOver();
+
+}
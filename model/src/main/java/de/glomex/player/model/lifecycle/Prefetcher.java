@@ -0,0 +1,124 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.GlomexPlayerFactory;
+import de.glomex.player.model.api.Priority;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves lifecycles of upcoming media in background, so switching to them doesn't wait for resolvers.
+ *
+ * Prefetch is started with the lowest priority and is silent: lifecycle events are fired when
+ * the media becomes current and its lifecycle manager takes the prefetch over.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class Prefetcher {
+
+    // opt-in, see PlaylistControl#setLookahead
+    public static final int LOOKAHEAD = 0;
+
+    // guarded by itself
+    private final Map<MediaID, LifecycleFetcher> fetchers = new LinkedHashMap<>();
+
+    private final LongAdder prefetched = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder wasted = new LongAdder();
+
+    /**
+     * Prefetches of media, which aren't upcoming anymore, are cancelled.
+     */
+    public void prefetch(@NotNull List<MediaID> upcoming) {
+        List<LifecycleFetcher> started = new ArrayList<>();
+        List<LifecycleFetcher> stale = new ArrayList<>();
+        synchronized (fetchers) {
+            for (Iterator<Map.Entry<MediaID, LifecycleFetcher>> i = fetchers.entrySet().iterator(); i.hasNext(); ) {
+                Map.Entry<MediaID, LifecycleFetcher> entry = i.next();
+                if (!upcoming.contains(entry.getKey())) {
+                    stale.add(entry.getValue());
+                    i.remove();
+                }
+            }
+            for (MediaID mediaID: upcoming)
+                if (!fetchers.containsKey(mediaID)) {
+                    LifecycleFetcher fetcher = new LifecycleFetcher(mediaID);
+                    fetchers.put(mediaID, fetcher);
+                    started.add(fetcher);
+                }
+        }
+        wasted.add(stale.size());
+        stale.forEach(LifecycleFetcher::shutdown);
+        if (started.isEmpty())
+            return;
+        // prefetch shed under load is started on take
+        ExecutionManager executor = GlomexPlayerFactory.instance(ExecutionManager.class);
+        for (LifecycleFetcher fetcher: started)
+            try {
+                executor.execute(Priority.prefetch, fetcher::prefetch);
+                prefetched.increment();
+            } catch (RejectedExecutionException shed) {
+                // lane is full
+            }
+    }
+
+    /**
+     * @return prefetched fetcher or the new one
+     */
+    public @NotNull LifecycleFetcher take(@NotNull MediaID mediaID) {
+        LifecycleFetcher fetcher;
+        synchronized (fetchers) {
+            fetcher = fetchers.remove(mediaID);
+        }
+        if (fetcher == null) {
+            misses.increment();
+            return new LifecycleFetcher(mediaID);
+        }
+        hits.increment();
+        return fetcher;
+    }
+
+    public void shutdown() {
+        List<LifecycleFetcher> cancelled;
+        synchronized (fetchers) {
+            cancelled = new ArrayList<>(fetchers.values());
+            fetchers.clear();
+        }
+        wasted.add(cancelled.size());
+        cancelled.forEach(LifecycleFetcher::shutdown);
+    }
+
+    public long prefetched() {
+        return prefetched.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Prefetches cancelled unused
+     */
+    public long wasted() {
+        return wasted.sum();
+    }
+
+    public double hitRate() {
+        long hits = hits(), total = hits + misses();
+        return total == 0? 0 : (double) hits / total;
+    }
+
+}
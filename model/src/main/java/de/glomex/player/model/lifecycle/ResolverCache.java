@@ -0,0 +1,241 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Resolved values by media, for resolver decorators.
+ *
+ * Size bounded, least recently used entry is evicted first.
+ * Every value lives for its own TTL; zero TTL means value isn't cached.
+ * Errors are cached for a short time as well, except transient ones (see {@link ResolverGuard}): they are retried.
+ * Neither are errors of interrupted, cancelled or timed out resolvers: those didn't answer.
+ *
+ * Concurrent misses of the same media both call the resolver.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverCache<V> {
+
+    private static class Cached<V> {
+        final @Nullable V value;
+        final @Nullable RuntimeException error;
+        final long expires;
+
+        Cached(@Nullable V value, @Nullable RuntimeException error, long ttlMillis) {
+            this.value = value;
+            this.error = error;
+            expires = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+
+        boolean expired(long now) {
+            return now - expires >= 0;
+        }
+    }
+
+    private final int size;
+    private final @NotNull ToLongFunction<V> ttl;
+    private final long errorTtl;
+
+    // access order, guarded by itself
+    private final Map<MediaID, Cached<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ResolverCache(int size, @NotNull ToLongFunction<V> ttlMillis, long errorTtlMillis) {
+        if (size < 1)
+            throw new IllegalArgumentException("Size should be positive: " + size);
+        this.size = size;
+        this.ttl = ttlMillis;
+        this.errorTtl = errorTtlMillis;
+        entries = new LinkedHashMap<MediaID, Cached<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MediaID, Cached<V>> eldest) {
+                if (size() <= ResolverCache.this.size)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Resolver is called on miss, on the calling thread.
+     */
+    public V get(@NotNull MediaID mediaID, @NotNull Function<MediaID, V> resolver) {
+        Cached<V> entry = lookup(mediaID);
+        if (entry != null) {
+            hits.increment();
+            if (entry.error != null)
+                throw entry.error;
+            return entry.value;
+        }
+        misses.increment();
+        V value;
+        try {
+            value = resolver.apply(mediaID);
+        } catch (RuntimeException error) {
+            if (!Thread.currentThread().isInterrupted())
+                store(mediaID, null, error);
+            throw error;
+        }
+        store(mediaID, value, null);
+        return value;
+    }
+
+    /**
+     * For asynchronous resolvers: cached value is returned as completed future.
+     */
+    public @NotNull CompletableFuture<V> getAsync(
+        @NotNull MediaID mediaID, @NotNull Function<MediaID, ? extends CompletionStage<V>> resolver
+    ) {
+        Cached<V> entry = lookup(mediaID);
+        if (entry != null) {
+            hits.increment();
+            CompletableFuture<V> cached = new CompletableFuture<>();
+            if (entry.error != null)
+                cached.completeExceptionally(entry.error);
+            else
+                cached.complete(entry.value);
+            return cached;
+        }
+        misses.increment();
+        CompletableFuture<V> resolving = resolver.apply(mediaID).toCompletableFuture();
+        resolving.whenComplete((value, error) ->
+            store(mediaID, value, error instanceof CompletionException? error.getCause() : error)
+        );
+        return resolving;
+    }
+
+    private void store(@NotNull MediaID mediaID, @Nullable V value, @Nullable Throwable error) {
+        if (error == null) {
+            long ttl = this.ttl.applyAsLong(value);
+            if (ttl > 0)
+                put(mediaID, new Cached<>(value, null, ttl));
+        } else if (errorTtl > 0 && error instanceof RuntimeException && answered(error))
+            put(mediaID, new Cached<>(null, (RuntimeException) error, errorTtl));
+    }
+
+    // resolver may wrap the interruption, which clears the flag
+    private static boolean answered(@NotNull Throwable error) {
+        if (ResolverGuard.retryable(error))
+            return false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause())
+            if (cause instanceof InterruptedException || cause instanceof CancellationException || cause instanceof TimeoutException)
+                return false;
+        return true;
+    }
+
+    /**
+     * Misses are resolved by a single call; failures cached by single resolves are resolved again.
+     * Media resolver hasn't returned are missing in the result.
+     */
+    public @NotNull Map<MediaID, V> getAll(
+        @NotNull Collection<MediaID> mediaIDs, @NotNull Function<Collection<MediaID>, Map<MediaID, V>> resolver
+    ) {
+        Map<MediaID, V> result = new HashMap<>();
+        List<MediaID> missing = new ArrayList<>();
+        for (MediaID mediaID: mediaIDs) {
+            Cached<V> entry = lookup(mediaID);
+            if (entry != null && entry.error == null) {
+                hits.increment();
+                result.put(mediaID, entry.value);
+            } else {
+                misses.increment();
+                missing.add(mediaID);
+            }
+        }
+        if (missing.isEmpty())
+            return result;
+        resolver.apply(missing).forEach((mediaID, value) -> {
+            if (value == null || !missing.contains(mediaID))
+                return;
+            long ttl = this.ttl.applyAsLong(value);
+            if (ttl > 0)
+                put(mediaID, new Cached<>(value, null, ttl));
+            result.put(mediaID, value);
+        });
+        return result;
+    }
+
+    private @Nullable Cached<V> lookup(@NotNull MediaID mediaID) {
+        synchronized (entries) {
+            Cached<V> entry = entries.get(mediaID);
+            if (entry == null || !entry.expired(System.nanoTime()))
+                return entry;
+            entries.remove(mediaID);
+        }
+        expirations.increment();
+        return null;
+    }
+
+    private void put(@NotNull MediaID mediaID, @NotNull Cached<V> entry) {
+        synchronized (entries) {
+            entries.put(mediaID, entry);
+        }
+    }
+
+    public void invalidate(@NotNull MediaID mediaID) {
+        synchronized (entries) {
+            entries.remove(mediaID);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Expired entries included till they are looked up or evicted
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions, %d expirations",
+            size(), hits(), misses(), evictions(), expirations());
+    }
+
+}
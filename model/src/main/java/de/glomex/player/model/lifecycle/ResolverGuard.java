@@ -0,0 +1,399 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.model.api.CircuitBreaker;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.LimitedExecutor;
+import de.glomex.player.model.api.Logging;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Calls a resolver on its limited executor:
+ *   - every call has a deadline, counted since resolver starts running; on timeout resolver is interrupted
+ *   - transient failures (timeout, I/O) are retried with backoff, see {@link ResolverPolicy#backoffMillis(int)}
+ *   - when resolver keeps failing, circuit breaker opens and calls fail fast without reaching the resolver
+ * Errors resolvers throw otherwise are the resolver's answer: they aren't retried and don't open the circuit.
+ *
+ * Cancelling the returned future interrupts running call or cancels pending retry.
+ *
+ * Blocking resolvers run on the limited executor; prefetches - on their own one, with a lower limit and priority,
+ * so they don't hold the current media back. Asynchronous ones are called on the calling thread
+ * (retries - on the timer one, prefetches - on the prefetch executor) and are completed on their own,
+ * so they don't hold threads; on timeout their stage is cancelled.
+ * Prefetch, which is taken over by fetch, doesn't wait for the prefetch executor anymore, see {@link Prefetch}.
+ *
+ * Deadlines are fired by the timer thread itself, see {@link ExecutionManager#deadline}: they don't wait
+ * for the pool, which may be saturated by the very resolvers timed out.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverGuard {
+
+    private static final Logger log = Logging.getLogger(ResolverGuard.class);
+
+    private final @NotNull String name;
+    private final @NotNull ExecutionManager timer;
+    private final @NotNull LimitedExecutor executor;
+    private final @NotNull LimitedExecutor prefetchExecutor;
+    private final @NotNull ResolverPolicy policy;
+    private final @NotNull CircuitBreaker breaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+
+    public ResolverGuard(
+        @NotNull String name, @NotNull ExecutionManager timer, @NotNull LimitedExecutor executor, @NotNull ResolverPolicy policy
+    ) {
+        this(name, timer, executor, executor, policy);
+    }
+
+    public ResolverGuard(
+        @NotNull String name, @NotNull ExecutionManager timer,
+        @NotNull LimitedExecutor executor, @NotNull LimitedExecutor prefetchExecutor, @NotNull ResolverPolicy policy
+    ) {
+        this.name = name;
+        this.timer = timer;
+        this.executor = executor;
+        this.prefetchExecutor = prefetchExecutor;
+        this.policy = policy;
+        breaker = new CircuitBreaker(name + " resolver", policy.breakerFailures(), policy.breakerOpenMillis());
+    }
+
+    public @NotNull <T> CompletableFuture<T> resolve(@NotNull Supplier<T> resolver) {
+        return resolve(resolver, false);
+    }
+
+    /**
+     * @param prefetch run on the prefetch executor
+     */
+    public @NotNull <T> CompletableFuture<T> resolve(@NotNull Supplier<T> resolver, boolean prefetch) {
+        calls.increment();
+        Call<T> call = new Call<>(resolver, null, prefetch);
+        call.attempt();
+        return call.result;
+    }
+
+    public @NotNull <T> CompletableFuture<T> resolveAsync(@NotNull Supplier<? extends CompletionStage<T>> resolver) {
+        return resolveAsync(resolver, false);
+    }
+
+    /**
+     * @param prefetch resolver is called by the prefetch executor
+     */
+    public @NotNull <T> CompletableFuture<T> resolveAsync(@NotNull Supplier<? extends CompletionStage<T>> resolver, boolean prefetch) {
+        calls.increment();
+        Call<T> call = new Call<>(null, resolver, prefetch);
+        call.attempt();
+        return call.result;
+    }
+
+    private class Result<T> extends CompletableFuture<T> implements Prefetch {
+
+        final @NotNull Call<T> call;
+
+        Result(@NotNull Call<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void takeOver() {
+            call.takeOver();
+        }
+    }
+
+    private class Call<T> {
+
+        // either one is set
+        final @Nullable Supplier<T> resolver;
+        final @Nullable Supplier<? extends CompletionStage<T>> asyncResolver;
+        final @NotNull CompletableFuture<T> result = new Result<>(this);
+        volatile boolean prefetch;
+        int retry;
+        // running attempt or pending retry
+        volatile @Nullable Future<?> pending;
+        volatile @Nullable Waiting waiting;
+
+        Call(@Nullable Supplier<T> resolver, @Nullable Supplier<? extends CompletionStage<T>> asyncResolver, boolean prefetch) {
+            this.resolver = resolver;
+            this.asyncResolver = asyncResolver;
+            this.prefetch = prefetch;
+            result.whenComplete((value, error) -> {
+                Future<?> pending = this.pending;
+                if (result.isCancelled() && pending != null)
+                    pending.cancel(true);
+            });
+        }
+
+        void attempt() {
+            if (result.isDone())
+                return;
+            if (!breaker.allow()) {
+                shortCircuits.increment();
+                result.completeExceptionally(new RejectedExecutionException(name + " resolver circuit is open"));
+                return;
+            }
+            if (prefetch)
+                defer();
+            else
+                start(executor);
+        }
+
+        private void start(@NotNull Executor executor) {
+            if (asyncResolver != null)
+                attemptAsync(asyncResolver);
+            else
+                attemptBlocking(executor);
+        }
+
+        private void defer() {
+            Waiting waiting = new Waiting();
+            this.waiting = waiting;
+            pending = waiting;
+            try {
+                prefetchExecutor.execute(waiting);
+            } catch (RejectedExecutionException rejected) {
+                if (waiting.claim())
+                    result.completeExceptionally(rejected);
+            }
+        }
+
+        void takeOver() {
+            prefetch = false;
+            Waiting waiting = this.waiting;
+            if (waiting != null && waiting.claim()) {
+                prefetchExecutor.remove(waiting);
+                start(executor);
+            }
+        }
+
+        // prefetch attempt waiting for a thread of the prefetch executor, started by either the executor or takeover;
+        // blocking one runs on the executor's thread
+        private class Waiting extends FutureTask<Void> {
+
+            private final AtomicBoolean claimed = new AtomicBoolean();
+
+            Waiting() {
+                super(() -> {}, null);
+            }
+
+            @Override
+            public void run() {
+                if (claim())
+                    start(Runnable::run);
+                set(null);
+            }
+
+            boolean claim() {
+                return claimed.compareAndSet(false, true) && !result.isDone();
+            }
+
+            // rejected by the executor, e.g. it is shut down
+            @Override
+            protected void done() {
+                if (isCancelled() && claim())
+                    result.completeExceptionally(new RejectedExecutionException(name + " resolver prefetch is rejected"));
+            }
+        }
+
+        private void attemptBlocking(@NotNull Executor executor) {
+            Attempt<T> attempt = new Attempt<>(this);
+            pending = attempt;
+            try {
+                executor.execute(attempt);
+            } catch (RejectedExecutionException rejected) {
+                result.completeExceptionally(rejected);
+                attempt.cancel(false);
+            }
+        }
+
+        private void attemptAsync(@NotNull Supplier<? extends CompletionStage<T>> asyncResolver) {
+            CompletableFuture<T> stage;
+            try {
+                stage = asyncResolver.get().toCompletableFuture();
+            } catch (RuntimeException error) {
+                completed(null, error, false);
+                return;
+            }
+            pending = stage;
+            AtomicBoolean expired = new AtomicBoolean();
+            Future<?> deadline = null;
+            if (policy.timeoutMillis() > 0)
+                try {
+                    deadline = timer.deadline(() -> {
+                        expired.set(true);
+                        stage.cancel(true);
+                    }, policy.timeoutMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException rejected) {
+                    result.completeExceptionally(rejected);
+                    stage.cancel(true);
+                    return;
+                }
+            Future<?> timeout = deadline;
+            stage.whenComplete((value, error) -> {
+                if (timeout != null)
+                    timeout.cancel(false);
+                completed(value, error instanceof CompletionException && error.getCause() != null? error.getCause() : error, expired.get());
+            });
+        }
+
+        void completed(@Nullable T value, @Nullable Throwable error, boolean timedOut) {
+            if (result.isDone())
+                return; // cancelled
+            if (error == null) {
+                breaker.success();
+                result.complete(value);
+                return;
+            }
+            if (error instanceof CancellationException) {
+                if (!timedOut) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                timeouts.increment();
+                error = new TimeoutException(name + " resolver timed out after " + policy.timeoutMillis() + " ms");
+            }
+            if (!retryable(error)) {
+                breaker.success(); // resolver has answered
+                failures.increment();
+                result.completeExceptionally(error);
+                return;
+            }
+            breaker.failure();
+            if (retry >= policy.retries()) {
+                failures.increment();
+                result.completeExceptionally(error);
+                return;
+            }
+            long delay = policy.backoffMillis(retry++);
+            retries.increment();
+            log.fine(name + " resolver failed (" + error.getMessage() + "), retry " + retry + " in " + delay + " ms");
+            try {
+                pending = timer.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    private class Attempt<T> extends FutureTask<T> {
+
+        final @NotNull Call<T> call;
+        volatile @Nullable Future<?> deadline;
+        volatile boolean timedOut;
+
+        @SuppressWarnings("ConstantConditions")
+        Attempt(@NotNull Call<T> call) {
+            super(call.resolver::get);
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            // not while queued by the limited executor
+            if (policy.timeoutMillis() > 0 && !isDone())
+                try {
+                    deadline = timer.deadline(this::expire, policy.timeoutMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException rejected) {
+                    log.fine(name + " resolver runs without deadline, timer is shut down");
+                }
+            super.run();
+        }
+
+        void expire() {
+            timedOut = true;
+            cancel(true);
+        }
+
+        @Override
+        protected void done() {
+            Future<?> deadline = this.deadline;
+            if (deadline != null)
+                deadline.cancel(false);
+            T value = null;
+            Throwable error = null;
+            try {
+                value = get();
+            } catch (CancellationException cancelled) {
+                error = cancelled;
+            } catch (ExecutionException failed) {
+                error = failed.getCause();
+            } catch (InterruptedException interrupted) {
+                // can't happen, attempt is done
+                Thread.currentThread().interrupt();
+                error = interrupted;
+            }
+            call.completed(value, error, timedOut);
+        }
+    }
+
+    static boolean retryable(@NotNull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause())
+            if (cause instanceof TimeoutException || cause instanceof IOException)
+                return true;
+        return false;
+    }
+
+    public @NotNull String name() {
+        return name;
+    }
+
+    public @NotNull LimitedExecutor executor() {
+        return executor;
+    }
+
+    public @NotNull LimitedExecutor prefetchExecutor() {
+        return prefetchExecutor;
+    }
+
+    public @NotNull ResolverPolicy policy() {
+        return policy;
+    }
+
+    public @NotNull CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Calls failed fast by the open circuit
+     */
+    public long shortCircuits() {
+        return shortCircuits.sum();
+    }
+
+}
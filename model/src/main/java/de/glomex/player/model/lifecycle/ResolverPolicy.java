@@ -0,0 +1,78 @@
+package de.glomex.player.model.lifecycle;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How resolver calls are guarded, see {@link ResolverGuard}.
+ *
+ * Configured with system properties, see {@link #configured(String, long)}:
+ *   - glomex.resolver.content.timeout, glomex.resolver.ads.timeout - deadline of a single call, ms; 0 for none
+ *   - glomex.resolver.retries - retries of transient failures
+ *   - glomex.resolver.backoff - delay before the first retry, ms; doubled for each next one
+ *   - glomex.resolver.breaker.failures - consecutive failures opening the circuit
+ *   - glomex.resolver.breaker.open - how long circuit stays open, ms
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverPolicy {
+
+    public static final long CONTENT_TIMEOUT = 10_000;
+    public static final long ADS_TIMEOUT = 5_000;
+    public static final int RETRIES = 2;
+    public static final long BACKOFF = 200;
+    public static final long MAX_BACKOFF = 5_000;
+    public static final int BREAKER_FAILURES = 5;
+    public static final long BREAKER_OPEN = 30_000;
+
+    private final long timeoutMillis;
+    private final int retries;
+    private final long backoffMillis;
+    private final int breakerFailures;
+    private final long breakerOpenMillis;
+
+    public ResolverPolicy(long timeoutMillis, int retries, long backoffMillis, int breakerFailures, long breakerOpenMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.retries = retries;
+        this.backoffMillis = backoffMillis;
+        this.breakerFailures = breakerFailures;
+        this.breakerOpenMillis = breakerOpenMillis;
+    }
+
+    public static @NotNull ResolverPolicy configured(@NotNull String resolver, long timeoutMillis) {
+        return new ResolverPolicy(
+            Long.getLong("glomex.resolver." + resolver + ".timeout", timeoutMillis),
+            Integer.getInteger("glomex.resolver.retries", RETRIES),
+            Long.getLong("glomex.resolver.backoff", BACKOFF),
+            Integer.getInteger("glomex.resolver.breaker.failures", BREAKER_FAILURES),
+            Long.getLong("glomex.resolver.breaker.open", BREAKER_OPEN)
+        );
+    }
+
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int retries() {
+        return retries;
+    }
+
+    public int breakerFailures() {
+        return breakerFailures;
+    }
+
+    public long breakerOpenMillis() {
+        return breakerOpenMillis;
+    }
+
+    /**
+     * Exponential, with jitter: half of the delay is random, so players failed together don't retry together.
+     */
+    public long backoffMillis(int retry) {
+        long delay = Math.min(MAX_BACKOFF, backoffMillis << Math.min(retry, 20));
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+}
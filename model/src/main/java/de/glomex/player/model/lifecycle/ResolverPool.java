@@ -0,0 +1,121 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.LimitedExecutor;
+import de.glomex.player.model.api.Priority;
+import de.glomex.player.model.api.SharedScheduler;
+import de.glomex.player.model.metrics.ExecutionMetrics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executor for content and ad resolvers, which usually block on network.
+ * Asynchronous resolvers don't use its threads, only its timer.
+ * By default it is the player's executor: a pool per player would multiply threads by players count.
+ * Every resolver has its own concurrency limit, so e.g. hanging ad server can't take all the threads,
+ * and is guarded with deadline, retries and circuit breaker, see {@link ResolverGuard}.
+ *
+ * Configured with system properties, see {@link #configured(ExecutionManager)}:
+ *   - glomex.resolver.threads - pool size in shared scheduler mode
+ *   - glomex.resolver.virtual - true for virtual thread per task, instead of the player's executor
+ *   - glomex.resolver.content.limit, glomex.resolver.ads.limit - concurrent calls of each resolver
+ *   - glomex.resolver.prefetch.limit - concurrent prefetch calls of each resolver, on top of the limit above;
+ *     they are queued with prefetch priority, so calls for the current media go ahead of them
+ *   - resolver policies, see {@link ResolverPolicy#configured(String, long)}
+ * In shared scheduler mode resolvers of all players share a bounded pool of their own (glomex.resolver.threads),
+ * not the shared workers: those must not block. Every player is its tenant, see {@link SharedScheduler}.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverPool {
+
+    public static final int THREADS = 8;
+    public static final int LIMIT = 4;
+    public static final int PREFETCH_LIMIT = 1;
+    public static final String THREAD_NAME = "glomex-resolver";
+
+    private static volatile SharedScheduler shared;
+
+    private final @NotNull ExecutionManager executor;
+    private final @NotNull ResolverGuard content;
+    private final @NotNull ResolverGuard ads;
+
+    public ResolverPool(@NotNull ExecutionManager executor, int contentLimit, int adsLimit) {
+        this(
+            executor, contentLimit, adsLimit,
+            ResolverPolicy.configured("content", ResolverPolicy.CONTENT_TIMEOUT),
+            ResolverPolicy.configured("ads", ResolverPolicy.ADS_TIMEOUT)
+        );
+    }
+
+    public ResolverPool(
+        @NotNull ExecutionManager executor, int contentLimit, int adsLimit,
+        @NotNull ResolverPolicy contentPolicy, @NotNull ResolverPolicy adsPolicy
+    ) {
+        this(executor, contentLimit, adsLimit, PREFETCH_LIMIT, contentPolicy, adsPolicy);
+    }
+
+    public ResolverPool(
+        @NotNull ExecutionManager executor, int contentLimit, int adsLimit, int prefetchLimit,
+        @NotNull ResolverPolicy contentPolicy, @NotNull ResolverPolicy adsPolicy
+    ) {
+        this.executor = executor;
+        content = new ResolverGuard(
+            "content", executor, new LimitedExecutor(executor, contentLimit),
+            new LimitedExecutor(executor.lane(Priority.prefetch), prefetchLimit), contentPolicy
+        );
+        ads = new ResolverGuard(
+            "ads", executor, new LimitedExecutor(executor, adsLimit),
+            new LimitedExecutor(executor.lane(Priority.prefetch), prefetchLimit), adsPolicy
+        );
+    }
+
+    /**
+     * @param player player's executor, used unless shared scheduler or virtual threads are configured
+     */
+    public static @NotNull ResolverPool configured(@NotNull ExecutionManager player) {
+        ExecutionManager executor;
+        if (player.isShared())
+            executor = ExecutionManager.shared(shared());
+        else if (Boolean.getBoolean("glomex.resolver.virtual"))
+            executor = ExecutionManager.virtual();
+        else
+            executor = player;
+        return new ResolverPool(
+            executor,
+            Integer.getInteger("glomex.resolver.content.limit", LIMIT),
+            Integer.getInteger("glomex.resolver.ads.limit", LIMIT),
+            Integer.getInteger("glomex.resolver.prefetch.limit", PREFETCH_LIMIT),
+            ResolverPolicy.configured("content", ResolverPolicy.CONTENT_TIMEOUT),
+            ResolverPolicy.configured("ads", ResolverPolicy.ADS_TIMEOUT)
+        );
+    }
+
+    // blocking calls of all players, created on first use
+    private static @NotNull SharedScheduler shared() {
+        if (shared == null)
+            synchronized (ResolverPool.class) {
+                if (shared == null) {
+                    int threads = Integer.getInteger("glomex.resolver.threads", THREADS);
+                    shared = new SharedScheduler(threads, Math.max(1, threads / 2), THREAD_NAME);
+                }
+            }
+        return shared;
+    }
+
+    public @NotNull ResolverGuard content() {
+        return content;
+    }
+
+    public @NotNull ResolverGuard ads() {
+        return ads;
+    }
+
+    public @NotNull ExecutionManager executor() {
+        return executor;
+    }
+
+    public @NotNull ExecutionMetrics metrics() {
+        return executor.metrics();
+    }
+
+}
@@ -0,0 +1,200 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Joins concurrent resolves of the same media by the same resolver onto a single call,
+ * shared between all players of the JVM (and prefetches).
+ *
+ * Every caller gets own future. Cancelling it leaves the call, which is cancelled when the last caller leaves.
+ * Call runs on the pool of the player which started it. If that player leaves (e.g. shuts down its pool)
+ * and the call fails, the failure isn't an answer for the rest: the call is handed over, i.e. re-run by
+ * a caller left, on its own pool.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class SingleFlight {
+
+    private static final SingleFlight instance = new SingleFlight();
+
+    private static class Key {
+        final @NotNull Object origin;
+        final @NotNull MediaID mediaID;
+
+        Key(@NotNull Object origin, @NotNull MediaID mediaID) {
+            this.origin = origin;
+            this.mediaID = mediaID;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return origin == key.origin && mediaID.equals(key.mediaID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(origin), mediaID);
+        }
+    }
+
+    private static class Caller<V> {
+        final @NotNull Supplier<CompletableFuture<V>> call;
+
+        Caller(@NotNull Supplier<CompletableFuture<V>> call) {
+            this.call = call;
+        }
+    }
+
+    private static class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        // guarded by flights lock
+        CompletableFuture<V> call;
+        final List<Caller<V>> callers = new ArrayList<>();
+    }
+
+    // Plain old lock: flights are few and short
+    private final Object lock = new Object();
+    private final Map<Key, Flight<?>> flights = new HashMap<>();
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder handedOver = new LongAdder();
+
+    public static @NotNull SingleFlight instance() {
+        return instance;
+    }
+
+    /**
+     * @param origin resolver, compared by identity
+     * @param call started if there is no call in flight, or to take over the one of caller left
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull <V> CompletableFuture<V> run(
+        @NotNull Object origin, @NotNull MediaID mediaID, @NotNull Supplier<CompletableFuture<V>> call
+    ) {
+        Key key = new Key(origin, mediaID);
+        Caller<V> caller = new Caller<>(call);
+        Flight<V> flight;
+        boolean leader = false;
+        synchronized (lock) {
+            flight = (Flight<V>) flights.get(key);
+            if (flight == null) {
+                flight = new Flight<>();
+                flights.put(key, flight);
+                leader = true;
+            }
+            flight.callers.add(caller);
+        }
+        if (leader) {
+            started.increment();
+            Flight<V> leading = flight;
+            flight.result.whenComplete((value, error) -> {
+                synchronized (lock) {
+                    flights.remove(key, leading);
+                }
+            });
+            start(flight, caller);
+        } else
+            joined.increment();
+
+        CompletableFuture<V> result = new CompletableFuture<>();
+        flight.result.whenComplete((value, error) -> {
+            if (error == null)
+                result.complete(value);
+            else
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null? error.getCause() : error);
+        });
+        Flight<V> joinedFlight = flight;
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled())
+                leave(key, joinedFlight, caller);
+        });
+        return result;
+    }
+
+    private <V> void start(@NotNull Flight<V> flight, @NotNull Caller<V> runner) {
+        CompletableFuture<V> running;
+        try {
+            running = runner.call.get();
+        } catch (RuntimeException error) {
+            running = new CompletableFuture<>();
+            running.completeExceptionally(error);
+        }
+        synchronized (lock) {
+            flight.call = running;
+        }
+        if (flight.result.isCancelled())
+            running.cancel(true); // all callers left before the call started
+        running.whenComplete((value, error) -> {
+            if (error == null) {
+                flight.result.complete(value);
+                return;
+            }
+            Caller<V> next = null;
+            synchronized (lock) {
+                // runner has left: its pool may be shut down already
+                if (!flight.result.isDone() && !flight.callers.contains(runner) && !flight.callers.isEmpty())
+                    next = flight.callers.get(0);
+            }
+            if (next != null) {
+                handedOver.increment();
+                start(flight, next);
+            } else
+                flight.result.completeExceptionally(error);
+        });
+    }
+
+    private <V> void leave(@NotNull Key key, @NotNull Flight<V> flight, @NotNull Caller<V> caller) {
+        CompletableFuture<?> call;
+        synchronized (lock) {
+            flight.callers.remove(caller);
+            if (!flight.callers.isEmpty())
+                return;
+            flights.remove(key, flight);
+            call = flight.call;
+        }
+        // last caller has left
+        if (call != null)
+            call.cancel(true);
+        flight.result.cancel(false);
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return flights.size();
+        }
+    }
+
+    public long started() {
+        return started.sum();
+    }
+
+    /**
+     * Resolves, which joined a call in flight
+     */
+    public long joined() {
+        return joined.sum();
+    }
+
+    /**
+     * Calls re-run, as the caller who started them left and they failed
+     */
+    public long handedOver() {
+        return handedOver.sum();
+    }
+
+}
@@ -11,6 +11,17 @@ public class MediaUUID implements MediaID {
 
     UUID uuid = UUID.randomUUID();
 
+    // resolved media are cached by id
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MediaUUID && uuid.equals(((MediaUUID) other).uuid);
+    }
+
+    @Override
+    public int hashCode() {
+        return uuid.hashCode();
+    }
+
     @Override
     public String toString() {
         return uuid.toString().substring(0, 5); // todo: remove substring
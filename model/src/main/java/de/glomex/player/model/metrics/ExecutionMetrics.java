@@ -0,0 +1,125 @@
+package de.glomex.player.model.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounting of tasks passed through an executor: queue depth, active tasks,
+ * time spent waiting in the queue and running.
+ * Tasks are wrapped on submission, costing one object and two clock reads per task.
+ * Wrap runnable which always runs (e.g. FutureTask, even cancelled one), otherwise queue depth drifts.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ExecutionMetrics {
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Histogram waitTime = new Histogram();
+    private final Histogram runTime = new Histogram();
+
+    public @NotNull Runnable wrap(@NotNull Runnable task) {
+        long submitted = submitted();
+        return () -> {
+            long started = started(submitted);
+            try {
+                task.run();
+            } catch (RuntimeException | Error error) {
+                failed.increment();
+                throw error;
+            } finally {
+                finished(started);
+            }
+        };
+    }
+
+    /**
+     * Wrapped task wasn't accepted by executor
+     */
+    public void reject() {
+        queued.decrementAndGet();
+        rejected.increment();
+    }
+
+    /**
+     * Task wasn't even submitted: shed under load
+     */
+    public void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * Wrapped task was removed from queue and won't run
+     */
+    public void discard() {
+        queued.decrementAndGet();
+        dropped.increment();
+    }
+
+    private long submitted() {
+        queued.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    private long started(long submitted) {
+        long started = System.nanoTime();
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        waitTime.record(started - submitted);
+        return started;
+    }
+
+    private void finished(long started) {
+        runTime.record(System.nanoTime() - started);
+        active.decrementAndGet();
+        completed.increment();
+    }
+
+    /**
+     * Tasks submitted, but not started yet
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public long completed() {
+        return completed.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public @NotNull Histogram waitTime() {
+        return waitTime;
+    }
+
+    public @NotNull Histogram runTime() {
+        return runTime;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return queued() + " queued, " + active() + " active, " + completed() + " completed, " + failed() + " failed, "
+            + rejected() + " rejected, " + dropped() + " dropped; wait: " + waitTime + "; run: " + runTime;
+    }
+
+}
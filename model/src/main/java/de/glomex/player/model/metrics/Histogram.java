@@ -0,0 +1,81 @@
+package de.glomex.player.model.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations in nanoseconds.
+ * Lock free and constant memory: values are counted in power-of-two buckets,
+ * so percentiles are approximate (upper bound of the bucket, at most twice the real value).
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(nanos, 1)));
+        count.increment();
+        total.add(nanos);
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) ;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long meanNanos() {
+        long count = this.count.sum();
+        return count == 0? 0 : total.sum() / count;
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile 0..1, e.g. 0.99
+     */
+    public long percentileNanos(double quantile) {
+        long count = this.count.sum();
+        if (count == 0)
+            return 0;
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank)
+                return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    // bucket 0 holds 0 and 1, bucket i holds [2^i, 2^(i+1))
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1? Long.MAX_VALUE : (1L << bucket + 1) - 1;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return count() + " samples, avg " + micros(meanNanos()) + "us, p50 " + micros(percentileNanos(0.5))
+            + "us, p99 " + micros(percentileNanos(0.99)) + "us, max " + micros(maxNanos()) + "us";
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
@@ -0,0 +1,74 @@
+package de.glomex.player.model.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and reports average rate over sliding window of whole seconds.
+ * Lock free; buckets are reused in ring, so memory is constant.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class RateCounter {
+
+    private static final int DEFAULT_WINDOW = 10;
+
+    private final int window;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray seconds;
+    private final LongAdder total = new LongAdder();
+
+    public RateCounter() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public RateCounter(int windowSeconds) {
+        if (windowSeconds < 1)
+            throw new IllegalArgumentException("Window must be at least one second");
+        // one more bucket for the current, incomplete second
+        window = windowSeconds + 1;
+        counts = new AtomicLongArray(window);
+        seconds = new AtomicLongArray(window);
+    }
+
+    public void increment() {
+        long second = now();
+        int index = (int) Math.floorMod(second, (long) window);
+        long stamp = seconds.get(index);
+        if (stamp != second && seconds.compareAndSet(index, stamp, second))
+            counts.set(index, 0); // a racing increment may be lost here: acceptable for metrics
+        counts.incrementAndGet(index);
+        total.increment();
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * Average count per second over the window, current second excluded.
+     */
+    public double perSecond() {
+        long current = now();
+        long sum = 0;
+        for (int i = 0; i < window; i++) {
+            long age = current - seconds.get(i);
+            if (age > 0 && age < window)
+                sum += counts.get(i);
+        }
+        return (double) sum / (window - 1);
+    }
+
+    protected long now() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return String.format("%d total, %.1f/s", total(), perSecond());
+    }
+
+}
@@ -2,11 +2,13 @@ package de.glomex.player.model.playback;
 
 import de.glomex.player.api.playback.PlaybackListener;
 import de.glomex.player.model.InternalTag;
+import de.glomex.player.model.events.EmptyAdapter;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by <b>me@olexxa.com</b>
  */
+@EmptyAdapter
 public abstract class EmptyPlaybackListener implements PlaybackListener, InternalTag {
 
     @Override
@@ -3,11 +3,13 @@ package de.glomex.player.model.playlist;
 import de.glomex.player.api.media.MediaID;
 import de.glomex.player.api.playlist.PlaylistListener;
 import de.glomex.player.model.InternalTag;
+import de.glomex.player.model.events.EmptyAdapter;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by <b>me@olexxa.com</b>
  */
+@EmptyAdapter
 public class EmptyPlaylistListener implements PlaylistListener, InternalTag {
 
     @Override
@@ -7,10 +7,12 @@ import de.glomex.player.model.InternalTag;
 import de.glomex.player.model.api.Logging;
 import de.glomex.player.model.lifecycle.EmptyLifecycleListener;
 import de.glomex.player.model.lifecycle.LifecycleManager;
+import de.glomex.player.model.lifecycle.Prefetcher;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -45,10 +47,15 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
 
     private boolean repeatable;
     private boolean random;
+    private int lookahead = Integer.getInteger("glomex.prefetch.lookahead", Prefetcher.LOOKAHEAD);
 
     private final List<MediaID> playlist = new ArrayList<>();
     private final Map<MediaID, Status> statuses = new HashMap<>(); // statuses are needed because history size is limited
     private final Deque<MediaID> history = new ArrayDeque<>();
+    // random choices made ahead, so they can be prefetched
+    private final Deque<MediaID> planned = new ArrayDeque<>();
+
+    private final Prefetcher prefetcher = new Prefetcher();
 
     private @Nullable MediaID current;
     private @Nullable LifecycleManager lifecycleManager;
@@ -59,12 +66,31 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
 
     @Override
     public void setRandom(boolean state) {
-        random = state;
+        synchronized (lock) {
+            random = state;
+            planned.clear();
+            replan();
+        }
     }
 
     @Override
     public void setRepeatable(boolean state) {
-        repeatable = state;
+        synchronized (lock) {
+            repeatable = state;
+            replan();
+        }
+    }
+
+    @Override
+    public void setLookahead(int items) {
+        synchronized (lock) {
+            lookahead = Math.max(0, items);
+            replan();
+        }
+    }
+
+    public @NotNull Prefetcher prefetcher() {
+        return prefetcher;
     }
 
     @Override
@@ -75,6 +101,7 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
             return;
         synchronized (lock) {
             playlist.addAll(Arrays.asList(medias));
+            replan();
         }
         playlistListener.onChanged();
     }
@@ -91,6 +118,7 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
             history.removeIf(candidate -> candidate.equals(toRemove));
             playlist.remove(toRemove);
             statuses.remove(toRemove);
+            replan();
         }
         playlistListener.onChanged();
     }
@@ -103,14 +131,25 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
         playlistListener.onChanged();
     }
 
-    public void shutdown() {
-        cleanup();
+    /**
+     * Completes when current media players are disposed.
+     */
+    public @NotNull CompletableFuture<Void> shutdown() {
+        synchronized (lock) {
+            LifecycleManager closing = lifecycleManager;
+            lifecycleManager = null;
+            current = null;
+            cleanup();
+            return closing != null? closing.shutdownAsync() : CompletableFuture.completedFuture(null);
+        }
     }
 
     private void cleanup() {
         playlist.clear();
         statuses.clear();
         history.clear();
+        planned.clear();
+        prefetcher.shutdown();
         if (current != null) {
             // noinspection ConstantConditions
             lifecycleManager.shutdown();
@@ -122,10 +161,14 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
 
     @Override
     public void shuffle() {
-        statuses.clear();
-        if (current != null)
-            statuses.put(current, Status.isBeingPlayed);
-        Collections.shuffle(playlist);
+        synchronized (lock) {
+            statuses.clear();
+            if (current != null)
+                statuses.put(current, Status.isBeingPlayed);
+            Collections.shuffle(playlist);
+            planned.clear();
+            replan();
+        }
         playlistListener.onChanged();
     }
 
@@ -152,8 +195,10 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
             return false;
 
         synchronized (lock) {
-            if (!playlist.contains(coming))
-                addContent(coming);
+            if (!playlist.contains(coming)) {
+                playlist.add(coming);
+                playlistListener.onChanged();
+            }
 
             return skipTo(coming, true);
         }
@@ -182,10 +227,55 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
 
         playlistListener.onNext(coming);
 
-        lifecycleManager = new LifecycleManager(coming);;
+        lifecycleManager = new LifecycleManager(coming, prefetcher);
+        prefetcher.prefetch(upcoming());
         return true;
     }
 
+    // outer synchronization required
+    // playlist or options have changed: upcoming media may be different
+    private void replan() {
+        if (current != null)
+            prefetcher.prefetch(upcoming());
+    }
+
+    // outer synchronization required
+    // media findNext is going to choose
+    private @NotNull List<MediaID> upcoming() {
+        List<MediaID> upcoming = new ArrayList<>();
+        if (lookahead == 0 || playlist.isEmpty())
+            return upcoming;
+        if (random) {
+            planned.removeIf(media -> !playlist.contains(media) || !repeatable && !nonPlayed(media));
+            List<MediaID> candidates = playlist.stream()
+                .filter(media -> repeatable || nonPlayed(media) && !planned.contains(media))
+                .collect(Collectors.toList());
+            Random generator = new Random();
+            while (planned.size() < lookahead && !candidates.isEmpty()) {
+                int index = generator.nextInt(candidates.size());
+                planned.offerLast(repeatable? candidates.get(index) : candidates.remove(index));
+            }
+            upcoming.addAll(planned);
+        } else {
+            int currentIndex = current == null? -1 : playlist.indexOf(current);
+            for (int step = 1; step <= playlist.size() && upcoming.size() < lookahead; step++) {
+                MediaID media = playlist.get((currentIndex + step) % playlist.size());
+                if (repeatable || nonPlayed(media))
+                    upcoming.add(media);
+            }
+        }
+        return upcoming;
+    }
+
+    // outer synchronization required
+    private @Nullable MediaID plannedNext() {
+        MediaID media;
+        while ((media = planned.pollFirst()) != null)
+            if (playlist.contains(media) && (repeatable || nonPlayed(media)))
+                return media;
+        return null;
+    }
+
     @Override
     public void onLifecycleError(@NotNull MediaID mediaID, @NotNull String message) {
         doNext(mediaID);
@@ -238,6 +328,12 @@ public class PlaylistManager extends EmptyLifecycleListener implements PlaylistC
     // outer synchronization required
     // todo: could be enforced with ReentranceLock, but this will pollute code with dev-time checks
     private MediaID findNext() {
+        if (random) {
+            MediaID planned = plannedNext();
+            if (planned != null)
+                return planned;
+        } else
+            planned.clear();
         Integer nextIndex = null;
         if (!repeatable) {
             Stream<MediaID> stream = playlist.stream()
@@ -0,0 +1,73 @@
+package de.glomex.player.model.tracking;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts batch as newline delimited JSON to the endpoint.
+ * Any non 2xx response is treated as failure.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class HttpTrackingSink implements TrackingSink {
+
+    private static final int DEFAULT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(5);
+
+    private final @NotNull URL endpoint;
+    private final int timeout;
+
+    public HttpTrackingSink(@NotNull URL endpoint) {
+        this(endpoint, DEFAULT_TIMEOUT);
+    }
+
+    public HttpTrackingSink(@NotNull URL endpoint, int timeoutMillis) {
+        this.endpoint = endpoint;
+        this.timeout = timeoutMillis;
+    }
+
+    @Override
+    public void send(@NotNull List<String> events) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (String event: events)
+            body.append(event).append('\n');
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            connection.setRequestProperty("Content-Type", "application/x-ndjson; charset=utf-8");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(bytes);
+            }
+            int status = connection.getResponseCode();
+            if (status < 200 || status >= 300)
+                throw new IOException("Tracking endpoint responded " + status);
+            // drain response, so connection could be reused
+            try (InputStream input = connection.getInputStream()) {
+                byte[] buffer = new byte[256];
+                //noinspection StatementWithEmptyBody
+                while (input.read(buffer) >= 0);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HTTP tracking " + endpoint;
+    }
+
+}
@@ -0,0 +1,21 @@
+package de.glomex.player.model.tracking;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of tracked events.
+ * Events come already serialized, one JSON object per line.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public interface TrackingSink {
+
+    /**
+     * Must either accept the whole batch or throw an exception; batch is then kept in spool and resent later.
+     */
+    void send(@NotNull List<String> events) throws IOException;
+
+}
@@ -0,0 +1,118 @@
+package de.glomex.player.model.tracking;
+
+import de.glomex.player.model.api.Logging;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Append-only file of events, which couldn't be sent.
+ *
+ * Replay moves spool aside, sends it batch by batch and puts whatever wasn't sent back to the head of the spool,
+ * before events appended meanwhile, so the order is kept.
+ * File being replayed survives crash and is picked up by next replay, e.g. after restart.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class TrackingSpool {
+
+    private static final Logger log = Logging.getLogger(TrackingSpool.class);
+
+    private final @NotNull Path file;
+    private final @NotNull Path replaying;
+
+    public TrackingSpool(@NotNull Path file) {
+        this.file = file;
+        this.replaying = file.resolveSibling(file.getFileName() + ".replaying");
+    }
+
+    public synchronized void append(@NotNull List<String> events) throws IOException {
+        if (events.isEmpty())
+            return;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            for (String event: events) {
+                writer.write(event);
+                writer.newLine();
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return !Files.exists(file) && !Files.exists(replaying);
+    }
+
+    /**
+     * @return number of events sent
+     */
+    public int replay(@NotNull TrackingSink sink, int batch) throws IOException {
+        synchronized (this) {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(file))
+                    return 0;
+                Files.move(file, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        int sent = 0;
+        List<String> events = new ArrayList<>(batch);
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty())
+                    events.add(line);
+                if (events.size() == batch) {
+                    sink.send(events);
+                    sent += events.size();
+                    events.clear();
+                }
+            }
+            if (!events.isEmpty()) {
+                sink.send(events);
+                sent += events.size();
+                events.clear();
+            }
+        } catch (IOException | RuntimeException error) {
+            log.fine("Replay interrupted: " + error.getMessage());
+            // keep the rest for the next time
+            requeue(sent);
+            throw error;
+        }
+        Files.delete(replaying);
+        return sent;
+    }
+
+    // rest of replayed file, then events appended meanwhile
+    private synchronized void requeue(int skip) throws IOException {
+        Path requeued = file.resolveSibling(file.getFileName() + ".requeued");
+        try (BufferedWriter writer = Files.newBufferedWriter(requeued, StandardCharsets.UTF_8)) {
+            copy(replaying, skip, writer);
+            if (Files.exists(file))
+                copy(file, 0, writer);
+        }
+        Files.move(requeued, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(replaying);
+    }
+
+    private static void copy(@NotNull Path from, int skip, @NotNull BufferedWriter writer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(from, StandardCharsets.UTF_8)) {
+            String line;
+            int index = 0;
+            while ((line = reader.readLine()) != null)
+                if (!line.isEmpty() && index++ >= skip) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+        }
+    }
+
+}
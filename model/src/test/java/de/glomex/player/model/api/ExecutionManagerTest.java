@@ -0,0 +1,118 @@
+package de.glomex.player.model.api;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ExecutionManagerTest extends TestCase {
+
+    public void testPriorities() throws InterruptedException {
+        ExecutionManager executor = new ExecutionManager(1, "test");
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException ignored) {}
+        });
+
+        int limit = Priority.telemetry.limit();
+        List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(limit + 2);
+        int rejected = 0;
+        for (int i = 0; i < limit + 10; i++)
+            try {
+                executor.execute(Priority.telemetry, () -> {
+                    order.add(Priority.telemetry);
+                    done.countDown();
+                });
+            } catch (RejectedExecutionException full) {
+                rejected++;
+            }
+        assertEquals(10, rejected);
+        // future of the task rejected would never complete
+        try {
+            executor.submit(Priority.telemetry, () -> null);
+            fail("Submitted to full lane");
+        } catch (RejectedExecutionException expected) {
+        }
+        executor.execute(Priority.callbacks, () -> {
+            order.add(Priority.callbacks);
+            done.countDown();
+        });
+        executor.execute(Priority.control, () -> {
+            order.add(Priority.control);
+            done.countDown();
+        });
+        blocked.countDown();
+
+        assertTrue("Timeout", done.await(10, TimeUnit.SECONDS));
+        // queued later, started first
+        assertEquals(Priority.control, order.get(0));
+        assertEquals(Priority.callbacks, order.get(1));
+        assertEquals(11, executor.metrics(Priority.telemetry).dropped());
+        executor.shutdown();
+        assertEquals(limit, executor.metrics(Priority.telemetry).completed());
+    }
+
+    public void testExecuteAll() throws InterruptedException, ExecutionException {
+        ExecutionManager executor = new ExecutionManager();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        List<Callable<String>> tasks = Arrays.asList(
+            () -> "fast",
+            () -> {
+                throw new IllegalStateException("Emulated error");
+            },
+            () -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException straggler) {
+                    interrupted.countDown();
+                }
+                return "slow";
+            }
+        );
+
+        long started = System.nanoTime();
+        Results<String> results = executor.executeAll(Priority.lifecycle, tasks, 0, 200, TimeUnit.MILLISECONDS).get();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+
+        assertEquals(3, results.size());
+        assertFalse(results.complete());
+        assertEquals("fast", results.value(0));
+        assertTrue(results.error(1) instanceof IllegalStateException);
+        assertTrue(results.timedOut(2));
+        assertEquals(Collections.singletonList("fast"), results.values());
+        assertTrue("Straggler isn't cancelled", interrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    public void testDropCancelsQueued() throws Exception {
+        ExecutionManager executor = new ExecutionManager(1, "test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException ignored) {}
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = executor.submit(() -> "never");
+        executor.shutdownAsync(ShutdownPolicy.drop, 1, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        assertTrue("Dropped task isn't cancelled", queued.isCancelled());
+        assertEquals(1, executor.metrics(Priority.callbacks).dropped());
+    }
+
+}
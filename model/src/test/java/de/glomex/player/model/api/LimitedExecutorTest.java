@@ -0,0 +1,79 @@
+package de.glomex.player.model.api;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class LimitedExecutorTest extends TestCase {
+
+    public void testLimit() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        LimitedExecutor limited = new LimitedExecutor(pool, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 5; i++)
+            limited.execute(() -> {
+                maxRunning.accumulateAndGet(limited.running(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+                done.countDown();
+            });
+        assertEquals(2, limited.running());
+        assertEquals(3, limited.queued());
+
+        release.countDown();
+        assertTrue("Timeout", done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        pool.shutdown();
+    }
+
+    public void testRejection() throws InterruptedException, ExecutionException, TimeoutException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        LimitedExecutor limited = new LimitedExecutor(pool, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        limited.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {}
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        FutureTask<String> queued = new FutureTask<>(() -> "never");
+        limited.execute(queued);
+        pool.shutdown();
+
+        // queued one is cancelled, when the running task completes, so it doesn't hang its waiters
+        release.countDown();
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            fail("Queued task has run");
+        } catch (CancellationException expected) {
+        }
+        assertEquals(0, limited.running());
+        assertEquals(0, limited.queued());
+
+        // task being executed is rejected to the caller
+        try {
+            limited.execute(() -> {});
+            fail("Executed by shut down pool");
+        } catch (RejectedExecutionException expected) {
+        }
+        assertEquals(0, limited.queued());
+    }
+
+}
@@ -0,0 +1,112 @@
+package de.glomex.player.model.api;
+
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class SharedSchedulerTest extends TestCase {
+
+    private static final int TASKS = 100;
+
+    public void testFairness() throws InterruptedException {
+        SharedScheduler scheduler = new SharedScheduler(2, 1);
+        ExecutorService busy = scheduler.tenant();
+        ExecutorService idle = scheduler.tenant();
+
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < TASKS; i++)
+            busy.execute(() -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {}
+                concurrent.decrementAndGet();
+                completed.incrementAndGet();
+            });
+
+        CountDownLatch served = new CountDownLatch(1);
+        idle.execute(served::countDown);
+        assertTrue("Timeout", served.await(1, TimeUnit.SECONDS));
+        // served long before busy tenant's queue is drained
+        assertTrue(completed.get() < TASKS / 2);
+
+        busy.shutdown();
+        assertTrue("Timeout", busy.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(TASKS, completed.get());
+        // one worker per tenant: busy tenant doesn't occupy the whole pool
+        assertEquals(1, maxConcurrent.get());
+        assertFalse(idle.isShutdown());
+    }
+
+    public void testShutdownNowInterrupts() throws InterruptedException {
+        SharedScheduler scheduler = new SharedScheduler(2, 2);
+        ExecutorService closing = scheduler.tenant();
+        ExecutorService other = scheduler.tenant();
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++)
+            closing.execute(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException cancelled) {
+                    interrupted.countDown();
+                }
+            });
+        assertTrue("Timeout", started.await(5, TimeUnit.SECONDS));
+        closing.execute(() -> fail("Queued task has run"));
+
+        assertEquals(1, closing.shutdownNow().size());
+        assertTrue("Running tasks aren't interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue("Timeout", closing.awaitTermination(5, TimeUnit.SECONDS));
+
+        // interruption doesn't leak to the workers' next tasks
+        CountDownLatch slept = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++)
+            other.execute(() -> {
+                try {
+                    Thread.sleep(10);
+                    slept.countDown();
+                } catch (InterruptedException ignored) {}
+            });
+        assertTrue("Other tenant is interrupted", slept.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testNoThreadsPerPlayer() throws Exception {
+        SharedScheduler scheduler = new SharedScheduler(2, 1);
+        scheduler.timer().schedule(() -> {}, 0, TimeUnit.MILLISECONDS).get(); // timer thread is started lazily
+        Set<Thread> before = new HashSet<>(Thread.getAllStackTraces().keySet());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?>[] terminated = new CompletableFuture<?>[10];
+        for (int i = 0; i < terminated.length; i++) {
+            ExecutionManager player = ExecutionManager.shared(scheduler);
+            player.schedule(() -> {}, 1, TimeUnit.MILLISECONDS);
+            player.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            });
+            terminated[i] = player.shutdownAsync(ShutdownPolicy.drain, 5, TimeUnit.SECONDS);
+        }
+        // players are shutting down meanwhile
+        Set<Thread> started = new HashSet<>(Thread.getAllStackTraces().keySet());
+        started.removeAll(before);
+        release.countDown();
+        CompletableFuture.allOf(terminated).get(10, TimeUnit.SECONDS);
+        assertTrue("Threads started: " + started, started.isEmpty());
+    }
+
+}
@@ -0,0 +1,98 @@
+package de.glomex.player.model.api;
+
+import de.glomex.player.api.lifecycle.ContentResolver;
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.PlayerTestCase;
+import de.glomex.player.model.lifecycle.EmptyLifecycleListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.MalformedURLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ShutdownTest extends PlayerTestCase {
+
+    public ShutdownTest() throws MalformedURLException {}
+
+    public void testShutdownDoesNotWaitResolvers() throws InterruptedException, ExecutionException, TimeoutException {
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        etcController.contentResolver(id -> {
+            resolving.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException cancelled) {
+                interrupted.countDown();
+            }
+            return content;
+        });
+        etcController.adResolver(id -> {
+            throw new IllegalStateException("No ads");
+        });
+        glomexPlayer.playlistManager().skipTo(mediaID);
+        await(resolving);
+
+        long started = System.nanoTime();
+        CompletableFuture<Void> shutdown = etcController.shutdownAsync();
+        // doesn't block the caller
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 500);
+        shutdown.get(5, TimeUnit.SECONDS);
+
+        await(interrupted);
+        long latency = glomexPlayer.shutdownMillis();
+        assertTrue("Shutdown took " + latency + "ms", latency >= 0 && latency < 1000);
+        assertSame(shutdown, etcController.shutdownAsync());
+    }
+
+    public void testSharedResolveSurvivesLeaderShutdown() throws InterruptedException, ExecutionException, TimeoutException {
+        CountDownLatch resolving = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ContentResolver contentResolver = id -> {
+            if (calls.incrementAndGet() > 1)
+                return content;
+            resolving.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException cancelled) {
+                throw new IllegalStateException("Interrupted");
+            }
+            return content;
+        };
+        etcController.contentResolver(contentResolver);
+        etcController.adResolver(id -> {
+            throw new IllegalStateException("No ads");
+        });
+        glomexPlayer.playlistManager().skipTo(mediaID);
+        await(resolving);
+
+        // the same resolver joins the call of the leader
+        GlomexPlayer follower = GlomexPlayerFactory.create();
+        follower.etcController().setAutoPlay(false);
+        follower.etcController().setAutoShutdown(false);
+        follower.etcController().contentResolver(contentResolver);
+        follower.etcController().adResolver(id -> {
+            throw new IllegalStateException("No ads");
+        });
+        CountDownLatch resolved = new CountDownLatch(1);
+        follower.subscribeManager().registerListener(new EmptyLifecycleListener() {
+            @Override
+            public void onContentResolved(@NotNull MediaID mediaID) {
+                resolved.countDown();
+            }
+        });
+        follower.playlistManager().skipTo(mediaID);
+
+        etcController.shutdownAsync().get(5, TimeUnit.SECONDS);
+        await(resolved);
+        assertEquals(2, calls.get());
+        follower.etcController().shutdownAsync().get(5, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,116 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.model.events.AsyncEventLogger.LoggerOverflow;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class AsyncEventLoggerTest extends TestCase {
+
+    private static final int EVENTS = 1000;
+
+    // holds the drainer in the first delivery till released, even if interrupted
+    private static class StuckLogger implements EventLogger {
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void logEvent(@NotNull String event) {
+            stuck.countDown();
+            while (release.getCount() > 0)
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+        }
+    }
+
+    private static EventRecord event(long value) {
+        return new EventRecord(EventKind.onSeek, System.currentTimeMillis(), null, null, value);
+    }
+
+    public void testBatching() throws InterruptedException {
+        AsyncEventLogger logger = new AsyncEventLogger(EVENTS, 100, LoggerOverflow.block);
+        AtomicInteger logged = new AtomicInteger();
+        AtomicInteger maxBatch = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(EVENTS);
+        logger.addLogger(new BatchEventLogger() {
+            @Override
+            public void logEvents(@NotNull List<EventRecord> events) {
+                maxBatch.accumulateAndGet(events.size(), Math::max);
+                logged.addAndGet(events.size());
+                events.forEach(event -> done.countDown());
+            }
+
+            @Override
+            public void logEvent(@NotNull String event) {
+                fail("Batch logger is called per event");
+            }
+        });
+        for (int i = 0; i < EVENTS; i++)
+            logger.logEvent(event(i));
+
+        assertTrue("Timeout", done.await(10, TimeUnit.SECONDS));
+        assertEquals(EVENTS, logged.get());
+        assertTrue(maxBatch.get() <= 100);
+        assertTrue(logger.batches() < EVENTS);
+        assertEquals(0, logger.dropped());
+        logger.shutdown();
+    }
+
+    public void testDrop() throws InterruptedException {
+        AsyncEventLogger logger = new AsyncEventLogger(4, 1, LoggerOverflow.drop);
+        StuckLogger stuck = new StuckLogger();
+        logger.addLogger(stuck);
+        logger.logEvent(event(0));
+        assertTrue("Timeout", stuck.stuck.await(5, TimeUnit.SECONDS));
+
+        // emitting thread doesn't wait
+        for (int i = 1; i <= 10; i++)
+            logger.logEvent(event(i));
+        assertEquals(4, logger.pending());
+        assertEquals(6, logger.dropped());
+        stuck.release.countDown();
+        logger.shutdown();
+    }
+
+    public void testBlock() throws InterruptedException {
+        AsyncEventLogger logger = new AsyncEventLogger(1, 1, LoggerOverflow.block);
+        StuckLogger stuck = new StuckLogger();
+        logger.addLogger(stuck);
+        logger.logEvent(event(0));
+        assertTrue("Timeout", stuck.stuck.await(5, TimeUnit.SECONDS));
+        logger.logEvent(event(1)); // fills the queue
+
+        CountDownLatch emitted = new CountDownLatch(1);
+        Thread emitter = new Thread(() -> {
+            logger.logEvent(event(2));
+            emitted.countDown();
+        });
+        emitter.start();
+        assertFalse("Emitting thread doesn't wait", emitted.await(300, TimeUnit.MILLISECONDS));
+
+        // waiting thread gives up on shutdown
+        logger.shutdown();
+        assertTrue("Emitting thread hangs after shutdown", emitted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, logger.dropped());
+        stuck.release.countDown();
+    }
+
+    public void testAfterShutdown() {
+        AsyncEventLogger logger = new AsyncEventLogger(1, 1, LoggerOverflow.drop);
+        logger.shutdown();
+        logger.addLogger(event -> fail("Logger is added after shutdown"));
+        assertTrue(logger.isEmpty());
+        logger.logEvent(event(0));
+        assertEquals(1, logger.late());
+        assertEquals(0, logger.pending());
+    }
+
+}
@@ -0,0 +1,256 @@
+package de.glomex.player.model.events;
+
+import de.glomex.player.api.events.Flow;
+import de.glomex.player.api.events.Overflow;
+import de.glomex.player.api.events.PlayerEvent;
+import de.glomex.player.api.playback.PlaybackListener;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.playback.EmptyPlaybackListener;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventHandlerTest extends TestCase {
+
+    private static final int EVENTS = 1000;
+
+    // 3rd party listener: policies aren't applied to internal ones
+    private static class ExternalPlaybackListener implements PlaybackListener {
+        public void onReady() {}
+        public void onPlay() {}
+        public void onPause() {}
+        public void onSeek(long position) {}
+        public void onError(@NotNull String message) {}
+        public void onFinished() {}
+    }
+
+    private SubscribeManager subscribeManager;
+    private EventHandler eventHandler;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        subscribeManager = new SubscribeManager();
+        eventHandler = new EventHandler(subscribeManager, new ExecutionManager());
+    }
+
+    public void testOrderPerListener() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2 * EVENTS);
+        List<Long> first = Collections.synchronizedList(new ArrayList<>());
+        List<Long> second = Collections.synchronizedList(new ArrayList<>());
+        subscribeManager.registerListener(recorder(first, latch));
+        subscribeManager.registerListener(recorder(second, latch));
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        for (long i = 0; i < EVENTS; i++)
+            playbackListener.onSeek(i);
+
+        assertTrue("Timeout", latch.await(10, TimeUnit.SECONDS));
+        for (List<Long> positions: new List[] {first, second}) {
+            assertEquals(EVENTS, positions.size());
+            for (int i = 0; i < EVENTS; i++)
+                assertEquals((long) i, (long) positions.get(i));
+        }
+    }
+
+    public void testRegisterDuringDispatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(EVENTS);
+        subscribeManager.registerListener(new EmptyPlaybackListener() {
+            @Override
+            public void onSeek(long position) {
+                PlaybackListener churn = new EmptyPlaybackListener() {};
+                subscribeManager.registerListener(churn);
+                subscribeManager.unregisterListener(churn);
+                latch.countDown();
+            }
+        });
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        for (long i = 0; i < EVENTS; i++)
+            playbackListener.onSeek(i);
+
+        assertTrue("Timeout", latch.await(10, TimeUnit.SECONDS));
+        assertEquals(EVENTS + 1, subscribeManager.registrations().total());
+    }
+
+    public void testFailingListenerDetached() throws InterruptedException {
+        eventHandler.listenerPolicy(new ListenerPolicy(
+            ListenerPolicy.Action.warn, 1, TimeUnit.SECONDS, ListenerPolicy.Action.detach, 3
+        ));
+        PlaybackListener failing = new ExternalPlaybackListener() {
+            @Override
+            public void onPlay() {
+                throw new IllegalStateException("Emulate exception for test");
+            }
+        };
+        subscribeManager.registerListener(failing);
+        CountDownLatch latch = new CountDownLatch(EVENTS);
+        subscribeManager.registerListener(new EmptyPlaybackListener() {
+            @Override
+            public void onPlay() {
+                latch.countDown();
+            }
+        });
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        for (int i = 0; i < EVENTS; i++)
+            playbackListener.onPlay();
+
+        assertTrue("Timeout", latch.await(10, TimeUnit.SECONDS));
+        assertFalse(subscribeManager.listenerStats().containsKey(failing));
+        assertEquals(1, subscribeManager.unregistrations().total());
+    }
+
+    public void testCoalescing() throws InterruptedException {
+        eventHandler.coalesce(100, TimeUnit.MILLISECONDS);
+        List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> states = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch finished = new CountDownLatch(1);
+        subscribeManager.registerListener(new EmptyPlaybackListener() {
+            @Override
+            public void onPlay() {
+                states.add(true);
+            }
+
+            @Override
+            public void onPause() {
+                states.add(false);
+            }
+
+            @Override
+            public void onSeek(long position) {
+                positions.add(position);
+            }
+
+            @Override
+            public void onFinished() {
+                finished.countDown();
+            }
+        });
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        for (long i = 0; i < EVENTS; i++) {
+            playbackListener.onSeek(i);
+            if (i % 2 == 0)
+                playbackListener.onPlay();
+            else
+                playbackListener.onPause();
+        }
+        playbackListener.onFinished();
+
+        assertTrue("Timeout", finished.await(10, TimeUnit.SECONDS));
+        assertTrue(positions.size() < EVENTS);
+        assertEquals(EVENTS - 1, (long) positions.get(positions.size() - 1));
+        assertEquals(Boolean.FALSE, states.get(states.size() - 1));
+        assertTrue(eventHandler.coalescer().coalesced() > 0);
+    }
+
+    public void testCoalescingOrder() throws InterruptedException {
+        eventHandler.coalesce(100, TimeUnit.MILLISECONDS);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch finished = new CountDownLatch(1);
+        subscribeManager.registerListener(new EmptyPlaybackListener() {
+            @Override
+            public void onPlay() {
+                events.add("play");
+            }
+
+            @Override
+            public void onSeek(long position) {
+                events.add("seek " + position);
+            }
+
+            @Override
+            public void onFinished() {
+                finished.countDown();
+            }
+        });
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        playbackListener.onSeek(10);
+        playbackListener.onPlay();
+        playbackListener.onFinished();
+
+        assertTrue("Timeout", finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("seek 10", "play"), events);
+    }
+
+    public void testPublisherBackpressure() throws InterruptedException {
+        List<PlayerEvent> received = Collections.synchronizedList(new ArrayList<>());
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        CountDownLatch completed = new CountDownLatch(1);
+        subscribeManager.events(PlaybackListener.class, 10, Overflow.drop_oldest).subscribe(new Flow.Subscriber<PlayerEvent>() {
+            public void onSubscribe(@NotNull Flow.Subscription given) {
+                subscription[0] = given;
+            }
+            public void onNext(@NotNull PlayerEvent event) {
+                received.add(event);
+            }
+            public void onError(@NotNull Throwable error) {}
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        PlaybackListener playbackListener = eventHandler.playbackListener();
+        for (long i = 0; i < EVENTS; i++)
+            playbackListener.onSeek(i);
+        eventHandler.playlistListener().onPlaylistFinished(); // filtered out
+        assertTrue(received.isEmpty());
+
+        // nothing is delivered until requested, only the latest are kept
+        subscription[0].request(Long.MAX_VALUE);
+        subscribeManager.shutdown();
+        assertTrue("Timeout", completed.await(10, TimeUnit.SECONDS));
+        assertEquals(10, received.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("onSeek", received.get(i).name());
+            assertEquals(EVENTS - 10 + i, (long) received.get(i).arguments().get(0));
+        }
+    }
+
+    public void testCallbackFilters() {
+        PlaybackListener seeking = new EmptyPlaybackListener() {
+            @Override
+            public void onSeek(long position) {}
+        };
+        subscribeManager.registerListener(seeking);
+        assertEquals(1, subscribeManager.internals(EventKind.onSeek).length);
+        assertEquals(0, subscribeManager.internals(EventKind.onPlay).length);
+
+        PlaybackListener external = new ExternalPlaybackListener();
+        subscribeManager.registerListener(external, "onPlay", "onPause");
+        assertEquals(1, subscribeManager.externals(EventKind.onPlay).length);
+        assertEquals(0, subscribeManager.externals(EventKind.onSeek).length);
+
+        try {
+            subscribeManager.registerListener(external, "onShutdown");
+            fail("Listener doesn't implement the callback");
+        } catch (IllegalArgumentException expected) {}
+
+        subscribeManager.unregisterListener(seeking);
+        subscribeManager.unregisterListener(external);
+        assertEquals(0, subscribeManager.internals(EventKind.onSeek).length);
+        assertEquals(0, subscribeManager.externals(EventKind.onPlay).length);
+    }
+
+    private PlaybackListener recorder(List<Long> positions, CountDownLatch latch) {
+        return new EmptyPlaybackListener() {
+            @Override
+            public void onSeek(long position) {
+                positions.add(position);
+                latch.countDown();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,153 @@
+package de.glomex.player.model.events;
+
+import com.sun.net.httpserver.HttpServer;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.tracking.HttpTrackingSink;
+import de.glomex.player.model.tracking.TrackingSpool;
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Local HTTP server stands in for tracking backend.
+ *
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventTrackerTest extends TestCase {
+
+    // failed sends (backend is down) shouldn't take long
+    private static final int SINK_TIMEOUT = 1000;
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private Path spoolFile;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        spoolFile = Files.createTempFile("tracking", ".spool");
+        Files.delete(spoolFile);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (server != null)
+            server.stop(0);
+        Files.deleteIfExists(spoolFile);
+        super.tearDown();
+    }
+
+    public void testSendSpoolReplay() throws IOException {
+        URL endpoint = startServer();
+        EventTracker tracker = new EventTracker(new ExecutionManager());
+        tracker.start(new HttpTrackingSink(endpoint, SINK_TIMEOUT), new TrackingSpool(spoolFile), 10, 100, 1000);
+
+        track(tracker, 25);
+        waitFor(() -> received.size() == 25);
+        assertTrue(received.get(0).startsWith("{\"time\":"));
+        assertTrue(received.get(0).endsWith("\"type\":\"PlaybackListener\",\"event\":\"onSeek\",\"args\":[0]}"));
+
+        // backend is down: events go to spool
+        server.stop(0);
+        track(tracker, 10);
+        waitFor(() -> tracker.spooled() == 10);
+        tracker.shutdown();
+        assertFalse(new TrackingSpool(spoolFile).isEmpty());
+
+        // restart: spool is replayed
+        received.clear();
+        endpoint = startServer();
+        EventTracker restarted = new EventTracker(new ExecutionManager());
+        restarted.start(new HttpTrackingSink(endpoint, SINK_TIMEOUT), new TrackingSpool(spoolFile), 10, 100, 1000);
+        waitFor(() -> received.size() == 10);
+        assertTrue(new TrackingSpool(spoolFile).isEmpty());
+        restarted.shutdown();
+    }
+
+    public void testReplayBackoff() throws Exception {
+        TrackingSpool spool = new TrackingSpool(spoolFile);
+        spool.append(Arrays.asList("{\"time\":1}", "{\"time\":2}"));
+        AtomicInteger attempts = new AtomicInteger();
+        EventTracker tracker = new EventTracker(new ExecutionManager());
+        tracker.start(events -> {
+            attempts.incrementAndGet();
+            throw new IOException("down");
+        }, spool, 10, 20, 1000);
+
+        Thread.sleep(1000);
+        tracker.shutdown();
+        // 50 flushes, replays after 20, 40, 80, 160, 320 and 640 ms
+        assertTrue("Replay attempts: " + attempts.get(), attempts.get() > 0 && attempts.get() <= 10);
+        assertEquals(Arrays.asList("{\"time\":1}", "{\"time\":2}"), Files.readAllLines(spoolFile, StandardCharsets.UTF_8));
+    }
+
+    public void testBufferBound() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EventTracker tracker = new EventTracker(new ExecutionManager());
+        tracker.start(events -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {}
+        }, null, 10, TimeUnit.SECONDS.toMillis(10), 50);
+
+        track(tracker, 10);
+        assertTrue("Timeout", sending.await(5, TimeUnit.SECONDS));
+        // sink is stuck: buffer is filled up, the rest is dropped right away
+        track(tracker, 100);
+        assertEquals(50, tracker.dropped());
+
+        release.countDown();
+        waitFor(() -> tracker.sent() + tracker.dropped() == 110);
+        tracker.shutdown();
+    }
+
+    private void track(EventTracker tracker, int count) {
+        for (int i = 0; i < count; i++)
+            tracker.trackEvent(new EventRecord(EventKind.onSeek, System.currentTimeMillis(), null, null, i));
+    }
+
+    private URL startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/track", exchange -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    received.add(line);
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/track");
+    }
+
+    private void waitFor(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                fail("Timeout");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+                fail("Interrupted");
+            }
+        }
+    }
+
+}
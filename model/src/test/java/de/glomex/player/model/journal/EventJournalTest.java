@@ -0,0 +1,115 @@
+package de.glomex.player.model.journal;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.events.EventHandler;
+import de.glomex.player.model.events.EventKind;
+import de.glomex.player.model.events.SubscribeManager;
+import de.glomex.player.model.lifecycle.EmptyLifecycleListener;
+import de.glomex.player.model.media.MediaUUID;
+import de.glomex.player.model.playback.EmptyPlaybackListener;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class EventJournalTest extends TestCase {
+
+    private static final int EVENTS = 100;
+
+    private Path directory;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        super.tearDown();
+    }
+
+    public void testRecordReplay() throws IOException, InterruptedException {
+        ExecutionManager executor = new ExecutionManager();
+        EventHandler handler = new EventHandler(new SubscribeManager(), executor);
+        // small segments, so journal rolls several times and the oldest are deleted
+        handler.startJournal(new EventJournal(directory, 16, 100));
+
+        MediaID mediaID = new MediaUUID();
+        handler.lifecycleListener().onContentError(mediaID, "Emulated error, with unicode: ä€");
+        for (long i = 0; i < EVENTS; i++)
+            handler.playbackListener().onSeek(i);
+        handler.playbackListener().onError("Emulated playback error");
+        handler.shutdown();
+        assertTrue(EventJournal.segments(directory).size() > 1);
+
+        // arguments are restored by their types
+        List<Object> arguments = new ArrayList<>();
+        new JournalReplay(directory).read((kind, timestamp, first, second, value) -> {
+            if (kind == EventKind.onContentError || kind == EventKind.onError)
+                arguments.add(first);
+        });
+        assertTrue(arguments.get(0) instanceof MediaID);
+        assertEquals("Emulated playback error", arguments.get(1));
+
+        List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(EVENTS + 1);
+        List<String> playbackErrors = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch failed = new CountDownLatch(1);
+        SubscribeManager target = new SubscribeManager();
+        target.registerListener(new EmptyPlaybackListener() {
+            @Override
+            public void onSeek(long position) {
+                positions.add(position);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(@NotNull String message) {
+                playbackErrors.add(message);
+                failed.countDown();
+            }
+        });
+        target.registerListener(new EmptyLifecycleListener() {
+            @Override
+            public void onContentError(@NotNull MediaID id, @NotNull String message) {
+                errors.add(id + " " + message);
+                latch.countDown();
+            }
+        });
+
+        EventHandler replaying = new EventHandler(target, executor);
+        int replayed;
+        try {
+            replayed = new JournalReplay(directory).replay(replaying, JournalReplay.UNLIMITED);
+        } finally {
+            replaying.shutdown();
+        }
+
+        assertEquals(EVENTS + 2, replayed);
+        assertTrue("Timeout", latch.await(10, TimeUnit.SECONDS));
+        assertTrue("Timeout", failed.await(10, TimeUnit.SECONDS));
+        assertEquals("Emulated playback error", playbackErrors.get(0));
+        assertEquals(mediaID + " Emulated error, with unicode: ä€", errors.get(0));
+        for (int i = 0; i < EVENTS; i++)
+            assertEquals((long) i, (long) positions.get(i));
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.LimitedExecutor;
+import de.glomex.player.model.media.MediaUUID;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class MicroBatcherTest extends TestCase {
+
+    // daemon threads
+    private final ExecutionManager executor = new ExecutionManager(4, "test");
+    private final ResolverGuard guard = new ResolverGuard(
+        "test", executor, new LimitedExecutor(executor, 2), new ResolverPolicy(5000, 0, 10, 5, 1000)
+    );
+    private final List<Collection<MediaID>> calls = new CopyOnWriteArrayList<>();
+
+    private Map<MediaID, String> resolve(Collection<MediaID> mediaIDs) {
+        calls.add(mediaIDs);
+        Map<MediaID, String> result = new HashMap<>();
+        mediaIDs.forEach(mediaID -> result.put(mediaID, "content " + mediaID));
+        return result;
+    }
+
+    public void testBatching() {
+        MicroBatcher<String> batcher = new MicroBatcher<>(this::resolve, guard, executor, 100, 3);
+        List<MediaID> mediaIDs = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        // full batch is sent right away, the rest after the window
+        for (int i = 0; i < 5; i++) {
+            MediaID mediaID = new MediaUUID();
+            mediaIDs.add(mediaID);
+            results.add(batcher.resolve(mediaID));
+        }
+        for (int i = 0; i < 5; i++)
+            assertEquals("content " + mediaIDs.get(i), results.get(i).join());
+        assertEquals(2, calls.size());
+        assertEquals(3, calls.get(0).size());
+        assertEquals(2, batcher.batches());
+    }
+
+    public void testNotFound() {
+        MicroBatcher<String> batcher = new MicroBatcher<>(mediaIDs -> new HashMap<>(), guard, executor, 10, 10);
+        try {
+            batcher.resolve(new MediaUUID()).join();
+            fail("Resolved");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NoSuchElementException);
+        }
+    }
+
+    public void testCancel() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        MicroBatcher<String> batcher = new MicroBatcher<>(mediaIDs -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new HashMap<>();
+        }, guard, executor, 10, 10);
+        CompletableFuture<String> first = batcher.resolve(new MediaUUID());
+        CompletableFuture<String> second = batcher.resolve(new MediaUUID());
+        assertTrue("Timeout", started.await(5, TimeUnit.SECONDS));
+
+        first.cancel(true);
+        assertEquals(1, interrupted.getCount());
+        second.cancel(true);
+        assertTrue("Batch call wasn't cancelled", interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,149 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.AdPosition;
+import de.glomex.player.api.media.Advertise;
+import de.glomex.player.api.media.Content;
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.LimitedExecutor;
+import de.glomex.player.model.media.ContentInfo;
+import de.glomex.player.model.media.MediaUUID;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverCacheTest extends TestCase {
+
+    private final AtomicInteger resolved = new AtomicInteger();
+
+    private Content resolve(MediaID mediaID, Long duration) {
+        resolved.incrementAndGet();
+        try {
+            return new ContentInfo(mediaID, "http://localhost/" + mediaID, duration);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void testLruEviction() {
+        CachingContentResolver resolver = new CachingContentResolver(id -> resolve(id, 1000L), 2, 60_000, 0, 0);
+        MediaID first = new MediaUUID(), second = new MediaUUID(), third = new MediaUUID();
+        Content content = resolver.resolve(first);
+        resolver.resolve(second);
+        assertSame(content, resolver.resolve(first));
+        resolver.resolve(third); // evicts second, least recently used
+        assertSame(content, resolver.resolve(first));
+        resolver.resolve(second);
+
+        assertEquals(4, resolved.get());
+        ResolverCache<Content> cache = resolver.cache();
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+        assertEquals(2, cache.evictions());
+    }
+
+    public void testStreamTtl() throws InterruptedException {
+        CachingContentResolver vod = new CachingContentResolver(id -> resolve(id, 1000L), 10, 60_000, 50, 0);
+        CachingContentResolver stream = new CachingContentResolver(id -> resolve(id, null), 10, 60_000, 50, 0);
+        MediaID mediaID = new MediaUUID();
+        vod.resolve(mediaID);
+        stream.resolve(mediaID);
+        Thread.sleep(100);
+        vod.resolve(mediaID);
+        stream.resolve(mediaID);
+
+        assertEquals(3, resolved.get());
+        assertEquals(1, stream.cache().expirations());
+    }
+
+    public void testNegativeCaching() {
+        ResolverCache<Content> cache = new ResolverCache<>(10, content -> 60_000, 60_000);
+        MediaID unknown = new MediaUUID(), unreachable = new MediaUUID();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(unknown, id -> {
+                    resolved.incrementAndGet();
+                    throw new IllegalArgumentException("unknown media");
+                });
+                fail("Resolved");
+            } catch (IllegalArgumentException expected) {}
+            try {
+                cache.get(unreachable, id -> {
+                    resolved.incrementAndGet();
+                    throw new UncheckedIOException(new IOException("unreachable"));
+                });
+                fail("Resolved");
+            } catch (UncheckedIOException expected) {}
+        }
+        // transient error isn't cached
+        assertEquals(3, resolved.get());
+
+        cache.invalidate(unknown);
+        assertEquals(0, cache.size());
+    }
+
+    public void testTimeoutNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachingContentResolver resolver = new CachingContentResolver(id -> {
+            if (calls.incrementAndGet() == 1)
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException interrupted) {
+                    // clears the flag
+                    throw new IllegalStateException("Resolving interrupted", interrupted);
+                }
+            return resolve(id, 1000L);
+        }, 10, 60_000, 0, 60_000);
+        ExecutionManager executor = new ExecutionManager(2, "test");
+        ResolverGuard guard = new ResolverGuard(
+            "test", executor, new LimitedExecutor(executor, 1), new ResolverPolicy(50, 1, 300, 10, 1000)
+        );
+        MediaID mediaID = new MediaUUID();
+        Content content = guard.resolve(() -> resolver.resolve(mediaID)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Long.valueOf(1000L), content.duration());
+        assertEquals(2, calls.get());
+        assertEquals(1, guard.timeouts());
+    }
+
+    public void testAdSnapshots() throws MalformedURLException {
+        List<Advertise> ads = new ArrayList<>();
+        ads.add(new AdvertiseData(new URL("http://localhost/preroll"), AdPosition.preRoll));
+        CachingAdResolver resolver = new CachingAdResolver(id -> {
+            resolved.incrementAndGet();
+            return ads;
+        }, 10, 60_000, 0);
+        MediaID mediaID = new MediaUUID();
+        List<Advertise> cached = resolver.resolve(mediaID);
+        ads.clear();
+        assertEquals(1, resolver.resolve(mediaID).size());
+        assertNotSame(ads, cached);
+        try {
+            cached.clear();
+            fail("Snapshot is modifiable");
+        } catch (UnsupportedOperationException expected) {}
+
+        resolver.cache().invalidate(mediaID);
+        assertTrue(resolver.resolve(mediaID).isEmpty());
+        assertEquals(2, resolved.get());
+
+        // so are the batch resolves cached
+        MediaID batched = new MediaUUID();
+        ads.add(new AdvertiseData(new URL("http://localhost/midroll"), AdPosition.midRoll));
+        resolver.cache().getAll(Collections.singleton(batched), missing -> CachingAdResolver.snapshots(Collections.singletonMap(batched, ads)));
+        ads.clear();
+        assertEquals(1, resolver.cache().getAll(Collections.singleton(batched), missing -> Collections.emptyMap()).get(batched).size());
+    }
+
+}
@@ -0,0 +1,193 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.model.api.CircuitBreaker;
+import de.glomex.player.model.api.ExecutionManager;
+import de.glomex.player.model.api.LimitedExecutor;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverGuardTest extends TestCase {
+
+    // daemon threads
+    private final ExecutionManager executor = new ExecutionManager(4, "test");
+
+    private ResolverGuard guard(long timeout, int retries, int breakerFailures, long breakerOpen) {
+        ResolverPolicy policy = new ResolverPolicy(timeout, retries, 10, breakerFailures, breakerOpen);
+        return new ResolverGuard("test", executor, new LimitedExecutor(executor, 2), policy);
+    }
+
+    public void testTimeoutInterruptsAndRetries() throws InterruptedException {
+        ResolverGuard guard = guard(50, 1, 10, 1000);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        CompletableFuture<String> result = guard.resolve(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+
+        assertTrue("Resolver wasn't interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        Throwable error = error(result);
+        assertTrue(error.toString(), error instanceof TimeoutException);
+        assertEquals(2, guard.timeouts());
+        assertEquals(1, guard.retries());
+        assertEquals(1, guard.failures());
+    }
+
+    public void testTimeoutOnSaturatedPool() throws InterruptedException {
+        ExecutionManager pool = new ExecutionManager(2, "saturated");
+        ResolverPolicy policy = new ResolverPolicy(100, 0, 10, 10, 1000);
+        ResolverGuard guard = new ResolverGuard("test", pool, new LimitedExecutor(pool, 2), policy);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        try {
+            // deadline counts since resolver starts, not while its attempt waits for the pool
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<String> hanging = guard.resolve(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ignored) {
+                }
+                return "late";
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // both threads are busy now, yet deadline fires
+            Throwable error = error(hanging);
+            assertTrue(error.toString(), error instanceof TimeoutException);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    public void testDeadlineStartsWhenRunning() {
+        LimitedExecutor limited = new LimitedExecutor(executor, 1);
+        ResolverPolicy policy = new ResolverPolicy(100, 0, 10, 10, 1000);
+        ResolverGuard guard = new ResolverGuard("test", executor, limited, policy);
+        // attempt waits for the resolver limit longer than its timeout
+        limited.execute(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertEquals("content", guard.resolve(() -> "content").join());
+        assertEquals(0, guard.timeouts());
+    }
+
+    public void testRetriesTransientOnly() {
+        ResolverGuard guard = guard(1000, 3, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> flaky = guard.resolve(() -> {
+            if (calls.incrementAndGet() < 3)
+                throw new UncheckedIOException(new IOException("connection reset"));
+            return "content";
+        });
+        assertEquals("content", flaky.join());
+        assertEquals(2, guard.retries());
+
+        CompletableFuture<String> notFound = guard.resolve(() -> {
+            throw new IllegalArgumentException("unknown media");
+        });
+        assertTrue(error(notFound) instanceof IllegalArgumentException);
+        assertEquals(2, guard.retries());
+        assertEquals(CircuitBreaker.State.closed, guard.state());
+    }
+
+    public void testCircuitBreaker() throws InterruptedException {
+        ResolverGuard guard = guard(1000, 0, 2, 200);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++)
+            error(guard.resolve(() -> {
+                calls.incrementAndGet();
+                throw new UncheckedIOException(new IOException("down"));
+            }));
+        assertEquals(CircuitBreaker.State.open, guard.state());
+
+        // fails fast without reaching resolver
+        Throwable error = error(guard.resolve(calls::incrementAndGet));
+        assertTrue(error instanceof RejectedExecutionException);
+        assertEquals(2, calls.get());
+        assertEquals(1, guard.shortCircuits());
+
+        // trial call closes the circuit
+        Thread.sleep(300);
+        assertEquals(Integer.valueOf(3), guard.resolve(calls::incrementAndGet).join());
+        assertEquals(CircuitBreaker.State.closed, guard.state());
+    }
+
+    public void testAsync() {
+        ResolverGuard guard = guard(50, 1, 10, 1000);
+        List<CompletableFuture<String>> stages = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> result = guard.resolveAsync(() -> {
+            CompletableFuture<String> stage = new CompletableFuture<>();
+            stages.add(stage);
+            return stage;
+        });
+        assertTrue(error(result) instanceof TimeoutException);
+        assertEquals(2, stages.size());
+        assertTrue(stages.get(0).isCancelled());
+        assertTrue(stages.get(1).isCancelled());
+
+        // completed by resolver itself, no pool thread involved
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        CompletableFuture<String> resolved = guard.resolveAsync(() -> stage);
+        stage.complete("content");
+        assertEquals("content", resolved.getNow(null));
+    }
+
+    public void testAsyncTimeoutOnSaturatedPool() {
+        ExecutionManager pool = new ExecutionManager(1, "saturated");
+        ResolverPolicy policy = new ResolverPolicy(100, 0, 10, 10, 1000);
+        ResolverGuard guard = new ResolverGuard("test", pool, new LimitedExecutor(pool, 1), policy);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        try {
+            CompletableFuture<String> stage = new CompletableFuture<>();
+            CompletableFuture<String> result = guard.resolveAsync(() -> stage);
+            assertTrue(error(result) instanceof TimeoutException);
+            assertTrue(stage.isCancelled());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static Throwable error(CompletableFuture<?> result) {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Resolved");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (InterruptedException | TimeoutException e) {
+            fail(e.toString());
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,81 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.model.api.ExecutionManager;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class ResolverPoolTest extends TestCase {
+
+    public void testLimitPerResolver() throws Exception {
+        ResolverPolicy policy = new ResolverPolicy(0, 0, 10, 10, 1000);
+        ResolverPool pool = new ResolverPool(new ExecutionManager(4, "test"), 1, 2, policy, policy);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> hanging = pool.content().resolve(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+                return "content";
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> waiting = pool.content().resolve(() -> "next");
+            assertEquals(1, pool.content().executor().running());
+            assertEquals(1, pool.content().executor().queued());
+
+            // hanging content server doesn't hold ads back
+            assertEquals("ads", pool.ads().resolve(() -> "ads").get(5, TimeUnit.SECONDS));
+            assertFalse(waiting.isDone());
+
+            release.countDown();
+            assertEquals("content", hanging.get(5, TimeUnit.SECONDS));
+            assertEquals("next", waiting.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    public void testPlayerExecutor() {
+        // no pool of its own per player
+        ExecutionManager player = new ExecutionManager(2, "test");
+        assertSame(player, ResolverPool.configured(player).executor());
+    }
+
+    public void testPrefetchLimit() throws Exception {
+        ResolverPolicy policy = new ResolverPolicy(0, 0, 10, 10, 1000);
+        ResolverPool pool = new ResolverPool(new ExecutionManager(4, "test"), 1, 1, 1, policy, policy);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            pool.content().resolve(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+                return "upcoming";
+            }, true);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> next = pool.content().resolve(() -> "next upcoming", true);
+            assertEquals(1, pool.content().prefetchExecutor().queued());
+
+            // slow prefetch doesn't hold the current media back
+            assertEquals("current", pool.content().resolve(() -> "current").get(5, TimeUnit.SECONDS));
+            assertFalse(next.isDone());
+
+            // taken over, it doesn't wait for the prefetch executor anymore
+            ((Prefetch) next).takeOver();
+            assertEquals("next upcoming", next.get(5, TimeUnit.SECONDS));
+            assertEquals(0, pool.content().prefetchExecutor().queued());
+        } finally {
+            release.countDown();
+        }
+    }
+
+}
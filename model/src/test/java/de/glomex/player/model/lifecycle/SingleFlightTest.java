@@ -0,0 +1,83 @@
+package de.glomex.player.model.lifecycle;
+
+import de.glomex.player.api.media.MediaID;
+import de.glomex.player.model.media.MediaUUID;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class SingleFlightTest extends TestCase {
+
+    private final SingleFlight flights = new SingleFlight();
+    private final Object resolver = new Object();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<String> call = new CompletableFuture<>();
+
+    private CompletableFuture<String> resolve(MediaID mediaID) {
+        return flights.run(resolver, mediaID, () -> {
+            calls.incrementAndGet();
+            return call;
+        });
+    }
+
+    public void testJoin() {
+        MediaID mediaID = new MediaUUID();
+        CompletableFuture<String> first = resolve(mediaID);
+        CompletableFuture<String> second = resolve(mediaID);
+        assertEquals(1, flights.inFlight());
+
+        call.complete("content");
+        assertEquals("content", first.join());
+        assertEquals("content", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, flights.joined());
+        assertEquals(0, flights.inFlight());
+
+        // finished call isn't shared
+        CompletableFuture<String> next = flights.run(resolver, mediaID, () -> CompletableFuture.completedFuture("again"));
+        assertEquals("again", next.join());
+        // neither other resolver's one
+        flights.run(new Object(), new MediaUUID(), CompletableFuture::new);
+        assertEquals(3, flights.started());
+    }
+
+    public void testCancel() {
+        MediaID mediaID = new MediaUUID();
+        CompletableFuture<String> first = resolve(mediaID);
+        CompletableFuture<String> second = resolve(mediaID);
+
+        first.cancel(true);
+        assertFalse("Call cancelled while still in use", call.isCancelled());
+        assertFalse(second.isDone());
+
+        second.cancel(true);
+        assertTrue("Call wasn't cancelled by the last caller", call.isCancelled());
+        assertEquals(0, flights.inFlight());
+    }
+
+    public void testHandOver() {
+        MediaID mediaID = new MediaUUID();
+        CompletableFuture<String> leader = resolve(mediaID);
+        CompletableFuture<String> follower = flights.run(resolver, mediaID, () -> CompletableFuture.completedFuture("own"));
+
+        // leader's pool is shut down
+        leader.cancel(true);
+        call.completeExceptionally(new IllegalStateException("interrupted"));
+        assertEquals("own", follower.join());
+        assertEquals(1, flights.handedOver());
+
+        // failure of the caller still waiting is the answer
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.run(resolver, mediaID, () -> failing);
+        CompletableFuture<String> second = flights.run(resolver, mediaID, CompletableFuture::new);
+        failing.completeExceptionally(new IllegalStateException("unknown media"));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(1, flights.handedOver());
+    }
+
+}
@@ -0,0 +1,25 @@
+package de.glomex.player.model.metrics;
+
+import junit.framework.TestCase;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class HistogramTest extends TestCase {
+
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 1000; i++)
+            histogram.record(i * 1000);
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_500, histogram.meanNanos());
+        assertEquals(1_000_000, histogram.maxNanos());
+        // approximate: within power of two above the exact value
+        long median = histogram.percentileNanos(0.5);
+        assertTrue(median >= 500_000 && median < 1_000_000);
+        assertEquals(1_000_000, histogram.percentileNanos(1));
+        assertEquals(0, new Histogram().percentileNanos(0.99));
+    }
+
+}
@@ -3,6 +3,7 @@ package de.glomex.player.model.playlist;
 import de.glomex.player.api.media.MediaID;
 import de.glomex.player.api.playlist.PlaylistControl;
 import de.glomex.player.model.PlayerTestCase;
+import de.glomex.player.model.lifecycle.Prefetcher;
 import de.glomex.player.model.media.MediaUUID;
 import org.jetbrains.annotations.NotNull;
 
@@ -63,6 +64,59 @@ public class PlaylistTest extends PlayerTestCase {
         return last;
     }
 
+    public void testPrefetch() {
+        playlist.addContent(a, b, c, d);
+        playlist.setLookahead(2);
+
+        playlist.skipTo(a);
+        waitAssertSame(a);
+        playlist.next();
+        waitAssertSame(b);
+        // c and d are prefetched, either is chosen
+        playlist.setRandom(true);
+        playlist.next();
+        waitAssertNotSame(a, b);
+
+        Prefetcher prefetcher = ((PlaylistManager) playlist).prefetcher();
+        assertEquals(1, prefetcher.misses());
+        assertEquals(2, prefetcher.hits());
+    }
+
+    public void testPrefetchReplanned() {
+        playlist.addContent(a, b);
+        playlist.setLookahead(2);
+        playlist.skipTo(a);
+        waitAssertSame(a);
+        // c becomes upcoming as well
+        playlist.addContent(c, d);
+        playlist.next();
+        waitAssertSame(b);
+        playlist.next();
+        waitAssertSame(c);
+        // whatever follows c after shuffle is prefetched
+        playlist.shuffle();
+        playlist.next();
+        waitAssertNotSame(c);
+
+        Prefetcher prefetcher = ((PlaylistManager) playlist).prefetcher();
+        assertEquals(1, prefetcher.misses());
+        assertEquals(3, prefetcher.hits());
+    }
+
+    public void testLookaheadReplanned() {
+        playlist.addContent(a, b, c);
+        playlist.skipTo(a);
+        waitAssertSame(a);
+        // off by default, turned on while playing
+        playlist.setLookahead(1);
+        playlist.next();
+        waitAssertSame(b);
+
+        Prefetcher prefetcher = ((PlaylistManager) playlist).prefetcher();
+        assertEquals(1, prefetcher.misses());
+        assertEquals(1, prefetcher.hits());
+    }
+
     public void testNotRepeatableNotRandom() {
         playlist.addContent(a, b, c, d);
 
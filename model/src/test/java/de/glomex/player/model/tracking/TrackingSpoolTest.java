@@ -0,0 +1,43 @@
+package de.glomex.player.model.tracking;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Created by <b>me@olexxa.com</b>
+ */
+public class TrackingSpoolTest extends TestCase {
+
+    public void testRequeueKeepsOrder() throws IOException {
+        Path file = Files.createTempFile("tracking", ".spool");
+        try {
+            Files.delete(file);
+            TrackingSpool spool = new TrackingSpool(file);
+            spool.append(Arrays.asList("a", "b", "c"));
+
+            // first batch is sent, then sink goes down, while a new event is spooled
+            int[] calls = {0};
+            TrackingSink sink = events -> {
+                if (calls[0]++ == 0)
+                    return;
+                spool.append(Collections.singletonList("new"));
+                throw new IOException("down");
+            };
+            try {
+                spool.replay(sink, 2);
+                fail("Replayed to sink which is down");
+            } catch (IOException expected) {
+            }
+            assertEquals(Arrays.asList("c", "new"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}